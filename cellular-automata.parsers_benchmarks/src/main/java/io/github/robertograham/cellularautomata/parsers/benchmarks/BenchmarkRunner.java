@@ -0,0 +1,34 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+        var commandLineOptions = new CommandLineOptions(args);
+
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListProfilers()
+                || commandLineOptions.shouldListResultFormats() || commandLineOptions.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        var optionsBuilder = new OptionsBuilder().parent(commandLineOptions);
+
+        if (commandLineOptions.getProfilers().isEmpty())
+            optionsBuilder.addProfiler(GCProfiler.class)
+                    .addProfiler(PeakHeapProfiler.class);
+
+        new Runner(optionsBuilder.build()).run();
+    }
+}
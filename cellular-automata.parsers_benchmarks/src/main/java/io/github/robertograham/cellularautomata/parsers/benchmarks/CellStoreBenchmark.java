@@ -0,0 +1,110 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.Cell;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStorage;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.DenseCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.OffHeapCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.PackedCellStore;
+import io.github.robertograham.cellularautomata.parsers.rle.RleParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class CellStoreBenchmark {
+
+    private static final int LOOKUPS = 4096;
+
+    @Param({"SPARSE", "DENSE"})
+    public PatternShape shape;
+
+    @Param({"1048576"})
+    public int size;
+
+    @Param({"SPARSE", "DENSE", "OFF_HEAP"})
+    public CellStorage cellStorage;
+
+    private CellStore cellStore;
+    private long[] lookupXs;
+    private long[] lookupYs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var rleParser = new RleParser();
+
+        rleParser.setCellStorage(cellStorage);
+
+        var rlePattern = rleParser.parse(new ByteArrayInputStream(SyntheticPatterns.rle(shape, size)));
+        var random = new Random(LOOKUPS);
+
+        cellStore = rlePattern.cellStore();
+        lookupXs = new long[LOOKUPS];
+        lookupYs = new long[LOOKUPS];
+
+        for (var i = 0; i < LOOKUPS; i++) {
+            lookupXs[i] = random.nextInt(shape.width());
+            lookupYs[i] = random.nextInt(rlePattern.getHeight().intValue());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (cellStore instanceof OffHeapCellStore)
+            ((OffHeapCellStore) cellStore).close();
+    }
+
+    @Benchmark
+    public long iterateCellSet() {
+        var sum = 0L;
+
+        for (Cell cell : cellStore)
+            sum += cell.coordinate().x() ^ cell.coordinate().y();
+
+        return sum;
+    }
+
+    @Benchmark
+    public void forEachCell(Blackhole blackhole) {
+        cellStore.forEachCell((x, y, state) -> blackhole.consume(x ^ y));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int contains() {
+        var found = 0;
+
+        for (var i = 0; i < LOOKUPS; i++)
+            if (cellStore.contains(lookupXs[i], lookupYs[i]))
+                found++;
+
+        return found;
+    }
+
+    @Benchmark
+    public int hashCells() {
+        return cellStore.hashCode();
+    }
+
+    @Benchmark
+    public PackedCellStore toPackedCellStore() {
+        var packedCellStore = new PackedCellStore(cellStore.size());
+
+        cellStore.forEachCell(packedCellStore);
+
+        return packedCellStore;
+    }
+
+    @Benchmark
+    public DenseCellStore toDenseCellStore() {
+        return DenseCellStore.of(cellStore);
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStorage;
+import io.github.robertograham.cellularautomata.parsers.life105.Life105Parser;
+import io.github.robertograham.cellularautomata.parsers.life105.Life105Pattern;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class Life105ParserBenchmark {
+
+    @Param({"SPARSE", "DENSE", "LONG_RUNS", "SHORT_LINES"})
+    public PatternShape shape;
+
+    @Param({"16384", "1048576", "67108864", "268435456"})
+    public int size;
+
+    @Param({"SPARSE", "AUTO"})
+    public CellStorage cellStorage;
+
+    private Life105Parser life105Parser;
+    private byte[] input;
+    private Path inputPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        life105Parser = new Life105Parser();
+        life105Parser.setCellStorage(cellStorage);
+        input = SyntheticPatterns.life105(shape, size);
+        inputPath = Files.createTempFile("life105-benchmark", ".tmp");
+        Files.write(inputPath, input);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputPath);
+    }
+
+    @Benchmark
+    public Life105Pattern parse(ParsedBytes parsedBytes) {
+        parsedBytes.bytes += input.length;
+
+        return life105Parser.parse(new ByteArrayInputStream(input));
+    }
+
+    @Benchmark
+    public Life105Pattern parsePath(ParsedBytes parsedBytes) {
+        parsedBytes.bytes += input.length;
+
+        return life105Parser.parse(inputPath);
+    }
+}
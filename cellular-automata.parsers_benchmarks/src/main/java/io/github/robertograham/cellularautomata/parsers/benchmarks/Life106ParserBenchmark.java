@@ -0,0 +1,66 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStorage;
+import io.github.robertograham.cellularautomata.parsers.life106.Life106Parser;
+import io.github.robertograham.cellularautomata.parsers.life106.Life106Pattern;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class Life106ParserBenchmark {
+
+    @Param({"SPARSE", "DENSE", "LONG_RUNS", "SHORT_LINES"})
+    public PatternShape shape;
+
+    @Param({"16384", "1048576", "67108864", "268435456"})
+    public int size;
+
+    @Param({"SPARSE", "AUTO"})
+    public CellStorage cellStorage;
+
+    @Param({"9223372036854775807", "1048576"})
+    public long parallelThreshold;
+
+    private Life106Parser life106Parser;
+    private byte[] input;
+    private Path inputPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        life106Parser = new Life106Parser();
+        life106Parser.setCellStorage(cellStorage);
+        life106Parser.setParallelThreshold(parallelThreshold);
+        input = SyntheticPatterns.life106(shape, size);
+        inputPath = Files.createTempFile("life106-benchmark", ".tmp");
+        Files.write(inputPath, input);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputPath);
+    }
+
+    @Benchmark
+    public Life106Pattern parse(ParsedBytes parsedBytes) {
+        parsedBytes.bytes += input.length;
+
+        return life106Parser.parse(new ByteArrayInputStream(input));
+    }
+
+    @Benchmark
+    public Life106Pattern parsePath(ParsedBytes parsedBytes) {
+        parsedBytes.bytes += input.length;
+
+        return life106Parser.parse(inputPath);
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import java.util.Random;
+
+public enum PatternShape {
+    SPARSE(4096, 200, 2),
+    DENSE(1024, 2, 2),
+    LONG_RUNS(65536, 4000, 4),
+    SHORT_LINES(8, 2, 2);
+
+    private final int width;
+    private final int meanDeadRun;
+    private final int meanLiveRun;
+
+    PatternShape(int width, int meanDeadRun, int meanLiveRun) {
+        this.width = width;
+        this.meanDeadRun = meanDeadRun;
+        this.meanLiveRun = meanLiveRun;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    int nextRun(Random random, boolean live) {
+        return 1 + random.nextInt(2 * (live ? meanLiveRun : meanDeadRun) - 1);
+    }
+}
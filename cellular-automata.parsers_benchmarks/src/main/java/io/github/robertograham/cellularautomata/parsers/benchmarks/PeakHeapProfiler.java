@@ -0,0 +1,70 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Collection;
+import java.util.List;
+
+public class PeakHeapProfiler implements InternalProfiler {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 1;
+
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    private volatile boolean sampling;
+    private Thread sampler;
+    private long peakHeapBytes;
+
+    @Override
+    public String getDescription() {
+        return "Peak total heap usage, sampled every millisecond during each iteration";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        System.gc();
+        peakHeapBytes = heapUsed();
+        sampling = true;
+        sampler = new Thread(this::sample, "peak-heap-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    @Override
+    public Collection<? extends Result<?>> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult iterationResult) {
+        sampling = false;
+
+        try {
+            sampler.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        peakHeapBytes = Math.max(peakHeapBytes, heapUsed());
+
+        return List.of(new ScalarResult("peak.heap", peakHeapBytes, "bytes", AggregationPolicy.MAX));
+    }
+
+    private void sample() {
+        while (sampling) {
+            peakHeapBytes = Math.max(peakHeapBytes, heapUsed());
+
+            try {
+                Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+            } catch (InterruptedException exception) {
+                return;
+            }
+        }
+    }
+
+    private long heapUsed() {
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import io.github.robertograham.cellularautomata.parsers.rle.RleParser;
+import io.github.robertograham.cellularautomata.parsers.rle.RlePattern;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class RleCellSinkBenchmark {
+
+    @Param({"SPARSE", "DENSE", "LONG_RUNS", "SHORT_LINES"})
+    public PatternShape shape;
+
+    @Param({"16384", "1048576", "67108864", "268435456"})
+    public int size;
+
+    @Param({"9223372036854775807", "1048576"})
+    public long parallelThreshold;
+
+    private RleParser rleParser;
+    private byte[] input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rleParser = new RleParser();
+        rleParser.setParallelThreshold(parallelThreshold);
+        input = SyntheticPatterns.rle(shape, size);
+    }
+
+    @Benchmark
+    public RlePattern parseToCellSink(ParsedBytes parsedBytes, Blackhole blackhole) {
+        parsedBytes.bytes += input.length;
+
+        return rleParser.parse(new ByteArrayInputStream(input), (x, y, state) -> blackhole.consume(x + y));
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStorage;
+import io.github.robertograham.cellularautomata.parsers.rle.RleParser;
+import io.github.robertograham.cellularautomata.parsers.rle.RlePattern;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class RleParserBenchmark {
+
+    @Param({"SPARSE", "DENSE", "LONG_RUNS", "SHORT_LINES"})
+    public PatternShape shape;
+
+    @Param({"16384", "1048576", "67108864", "268435456"})
+    public int size;
+
+    @Param({"SPARSE", "AUTO"})
+    public CellStorage cellStorage;
+
+    @Param({"9223372036854775807", "1048576"})
+    public long parallelThreshold;
+
+    private RleParser rleParser;
+    private byte[] input;
+    private Path inputPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        rleParser = new RleParser();
+        rleParser.setCellStorage(cellStorage);
+        rleParser.setParallelThreshold(parallelThreshold);
+        input = SyntheticPatterns.rle(shape, size);
+        inputPath = Files.createTempFile("rle-benchmark", ".tmp");
+        Files.write(inputPath, input);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputPath);
+    }
+
+    @Benchmark
+    public RlePattern parse(ParsedBytes parsedBytes) {
+        parsedBytes.bytes += input.length;
+
+        return rleParser.parse(new ByteArrayInputStream(input));
+    }
+
+    @Benchmark
+    public RlePattern parsePath(ParsedBytes parsedBytes) {
+        parsedBytes.bytes += input.length;
+
+        return rleParser.parse(inputPath);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.RowIndex;
+import io.github.robertograham.cellularautomata.parsers.rle.RleParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class RowIndexBenchmark {
+
+    private static final long VIEWPORT_SIZE = 64;
+
+    @Param({"SPARSE", "DENSE"})
+    public PatternShape shape;
+
+    @Param({"1048576", "16777216"})
+    public int size;
+
+    private CellStore cellStore;
+    private RowIndex rowIndex;
+    private long viewportX;
+    private long viewportY;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cellStore = new RleParser().parse(new ByteArrayInputStream(SyntheticPatterns.rle(shape, size))).cellStore();
+        rowIndex = RowIndex.of(cellStore);
+        viewportX = (rowIndex.minX() + rowIndex.maxX()) / 2;
+        viewportY = (rowIndex.minY() + rowIndex.maxY()) / 2;
+    }
+
+    @Benchmark
+    public RowIndex build() {
+        return RowIndex.of(cellStore);
+    }
+
+    @Benchmark
+    public long viewport() {
+        return rowIndex.countIn(viewportX, viewportY, viewportX + VIEWPORT_SIZE - 1, viewportY + VIEWPORT_SIZE - 1);
+    }
+
+    @Benchmark
+    public long viewportScan() {
+        var count = new long[1];
+
+        cellStore.forEachCell((x, y, state) -> {
+            if (x >= viewportX && x < viewportX + VIEWPORT_SIZE && y >= viewportY && y < viewportY + VIEWPORT_SIZE)
+                count[0]++;
+        });
+
+        return count[0];
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return rowIndex.contains(viewportX, viewportY);
+    }
+}
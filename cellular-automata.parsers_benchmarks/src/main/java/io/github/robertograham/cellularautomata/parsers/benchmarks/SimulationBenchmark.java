@@ -0,0 +1,49 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStore;
+import io.github.robertograham.cellularautomata.parsers.rle.RleParser;
+import io.github.robertograham.cellularautomata.parsers.simulation.BitboardSimulation;
+import io.github.robertograham.cellularautomata.parsers.simulation.LifeRule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class SimulationBenchmark {
+
+    @Param({"SPARSE", "DENSE"})
+    public PatternShape shape;
+
+    @Param({"1048576", "16777216"})
+    public int size;
+
+    @Param({"9223372036854775807", "16384"})
+    public long parallelThreshold;
+
+    private CellStore cellStore;
+    private BitboardSimulation bitboardSimulation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cellStore = new RleParser().parse(new ByteArrayInputStream(SyntheticPatterns.rle(shape, size))).cellStore();
+    }
+
+    @Setup(Level.Iteration)
+    public void load() {
+        bitboardSimulation = new BitboardSimulation(cellStore, LifeRule.LIFE);
+        bitboardSimulation.setParallelThreshold(parallelThreshold);
+    }
+
+    @Benchmark
+    public long step() {
+        bitboardSimulation.step();
+
+        return bitboardSimulation.generation();
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+final class SyntheticPatterns {
+
+    private static final long SEED = 0x5EED_CE11L;
+    private static final int RLE_LINE_LENGTH = 70;
+    private static final int LIFE_105_BLOCK_HEIGHT = 64;
+
+    private SyntheticPatterns() {
+    }
+
+    static byte[] rle(PatternShape shape, int targetBytes) {
+        var cellData = new ByteArrayOutputStream(targetBytes + RLE_LINE_LENGTH);
+        var random = new Random(SEED);
+        var line = new StringBuilder(RLE_LINE_LENGTH);
+        var height = 0L;
+
+        while (cellData.size() < targetBytes) {
+            if (height++ > 0)
+                appendRleToken(cellData, line, "$");
+
+            var x = 0;
+            var live = false;
+
+            while (x < shape.width()) {
+                var run = Math.min(shape.nextRun(random, live), shape.width() - x);
+
+                if (live || x + run < shape.width())
+                    appendRleToken(cellData, line, (run == 1 ? "" : Integer.toString(run)) + (live ? 'o' : 'b'));
+
+                x += run;
+                live = !live;
+            }
+        }
+
+        appendRleToken(cellData, line, "!");
+        write(cellData, line.append('\n').toString().getBytes(StandardCharsets.US_ASCII));
+
+        var header = ("#C synthetic " + shape + " pattern\nx = " + shape.width() + ", y = " + height + ", rule = B3/S23\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        var rle = new ByteArrayOutputStream(header.length + cellData.size());
+
+        write(rle, header);
+        write(rle, cellData.toByteArray());
+
+        return rle.toByteArray();
+    }
+
+    static byte[] life105(PatternShape shape, int targetBytes) {
+        var life105 = new ByteArrayOutputStream(targetBytes + shape.width() + 1);
+        var random = new Random(SEED);
+        var row = new byte[shape.width() + 1];
+        var y = 0;
+
+        write(life105, "#Life 1.05\n#D synthetic pattern\n#N\n".getBytes(StandardCharsets.US_ASCII));
+        row[shape.width()] = '\n';
+
+        while (life105.size() < targetBytes) {
+            if (y % LIFE_105_BLOCK_HEIGHT == 0)
+                write(life105, ("#P 0 " + y + "\n").getBytes(StandardCharsets.US_ASCII));
+
+            var x = 0;
+            var live = false;
+
+            while (x < shape.width()) {
+                var run = Math.min(shape.nextRun(random, live), shape.width() - x);
+
+                for (var end = x + run; x < end; x++)
+                    row[x] = (byte) (live ? '*' : '.');
+
+                live = !live;
+            }
+
+            life105.write(row, 0, row.length);
+            y++;
+        }
+
+        return life105.toByteArray();
+    }
+
+    static byte[] life106(PatternShape shape, int targetBytes) {
+        var life106 = new ByteArrayOutputStream(targetBytes + 32);
+        var random = new Random(SEED);
+        var y = 0;
+
+        write(life106, "#Life 1.06\n".getBytes(StandardCharsets.US_ASCII));
+
+        while (life106.size() < targetBytes) {
+            var x = 0;
+            var live = false;
+
+            while (x < shape.width() && life106.size() < targetBytes) {
+                var run = Math.min(shape.nextRun(random, live), shape.width() - x);
+
+                if (live)
+                    for (var end = x + run; x < end; x++)
+                        write(life106, (x + " " + y + "\n").getBytes(StandardCharsets.US_ASCII));
+                else
+                    x += run;
+
+                live = !live;
+            }
+
+            y++;
+        }
+
+        return life106.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream outputStream, byte[] bytes) {
+        outputStream.write(bytes, 0, bytes.length);
+    }
+
+    private static void appendRleToken(ByteArrayOutputStream cellData, StringBuilder line, String token) {
+        if (line.length() + token.length() > RLE_LINE_LENGTH) {
+            write(cellData, line.append('\n').toString().getBytes(StandardCharsets.US_ASCII));
+            line.setLength(0);
+        }
+
+        line.append(token);
+    }
+}
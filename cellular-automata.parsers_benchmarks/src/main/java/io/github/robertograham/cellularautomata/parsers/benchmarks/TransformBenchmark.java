@@ -0,0 +1,66 @@
+package io.github.robertograham.cellularautomata.parsers.benchmarks;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.DenseCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.DihedralTransform;
+import io.github.robertograham.cellularautomata.parsers.common.model.PackedCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.PatternTransformer;
+import io.github.robertograham.cellularautomata.parsers.rle.RleParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class TransformBenchmark {
+
+    @Param({"SPARSE", "DENSE"})
+    public PatternShape shape;
+
+    @Param({"1048576", "16777216"})
+    public int size;
+
+    @Param({"FLIP_HORIZONTAL", "ROTATE_90"})
+    public DihedralTransform transform;
+
+    @Param({"true", "false"})
+    public boolean parallel;
+
+    private CellStore packedCellStore;
+    private CellStore denseCellStore;
+    private PatternTransformer patternTransformer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        packedCellStore = new RleParser().parse(new ByteArrayInputStream(SyntheticPatterns.rle(shape, size))).cellStore();
+        denseCellStore = DenseCellStore.of(packedCellStore);
+        patternTransformer = new PatternTransformer();
+
+        if (!parallel)
+            patternTransformer.setParallelThreshold(Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public CellStore packed() {
+        return patternTransformer.transform(packedCellStore, transform, 1, 1);
+    }
+
+    @Benchmark
+    public CellStore dense() {
+        return patternTransformer.transform(denseCellStore, transform, 1, 1);
+    }
+
+    @Benchmark
+    public CellStore perCell() {
+        var cellStore = new PackedCellStore(packedCellStore.size());
+
+        packedCellStore.forEachCell((x, y, state) -> cellStore.add(transform.x(x, y) + 1, transform.y(x, y) + 1, state));
+
+        return cellStore;
+    }
+}
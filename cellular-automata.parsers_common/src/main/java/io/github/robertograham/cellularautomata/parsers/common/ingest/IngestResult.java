@@ -0,0 +1,92 @@
+package io.github.robertograham.cellularautomata.parsers.common.ingest;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+public final class IngestResult {
+
+    private final Path path;
+    private final String entryName;
+    private final CellularAutomataPattern pattern;
+    private final Throwable failure;
+
+    private IngestResult(Path path, String entryName, CellularAutomataPattern pattern, Throwable failure) {
+        this.path = path;
+        this.entryName = entryName;
+        this.pattern = pattern;
+        this.failure = failure;
+    }
+
+    static IngestResult success(Path path, CellularAutomataPattern pattern) {
+        return new IngestResult(path, null, pattern, null);
+    }
+
+    static IngestResult success(Path path, String entryName, CellularAutomataPattern pattern) {
+        return new IngestResult(path, entryName, pattern, null);
+    }
+
+    static IngestResult failure(Path path, Throwable failure) {
+        return new IngestResult(path, null, null, failure);
+    }
+
+    static IngestResult failure(Path path, String entryName, Throwable failure) {
+        return new IngestResult(path, entryName, null, failure);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public String entryName() {
+        return entryName;
+    }
+
+    public boolean isArchiveEntry() {
+        return entryName != null;
+    }
+
+    public CellularAutomataPattern pattern() {
+        return pattern;
+    }
+
+    public Throwable failure() {
+        return failure;
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+
+        if (!(object instanceof IngestResult))
+            return false;
+
+        IngestResult ingestResult = (IngestResult) object;
+
+        return Objects.equals(path, ingestResult.path) &&
+                Objects.equals(entryName, ingestResult.entryName) &&
+                Objects.equals(pattern, ingestResult.pattern) &&
+                Objects.equals(failure, ingestResult.failure);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, entryName, pattern, failure);
+    }
+
+    @Override
+    public String toString() {
+        return "IngestResult{" +
+                "path=" + path +
+                ", entryName='" + entryName + '\'' +
+                ", pattern=" + pattern +
+                ", failure=" + failure +
+                '}';
+    }
+}
@@ -0,0 +1,417 @@
+package io.github.robertograham.cellularautomata.parsers.common.ingest;
+
+import io.github.robertograham.cellularautomata.parsers.common.parser.CellularAutomataPatternParserRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class PatternIngester {
+
+    private final CellularAutomataPatternParserRegistry registry;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int maximumPendingResults;
+    private ExecutorService executorService;
+    private Predicate<Path> fileFilter = PatternIngester::hasPatternExtension;
+    private Predicate<Path> archiveFilter = PatternIngester::hasArchiveExtension;
+    private Predicate<String> entryFilter = PatternIngester::hasPatternExtension;
+
+    public PatternIngester() {
+        this(CellularAutomataPatternParserRegistry.load());
+    }
+
+    public PatternIngester(CellularAutomataPatternParserRegistry registry) {
+        this.registry = registry;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive");
+
+        this.parallelism = parallelism;
+    }
+
+    public int getMaximumPendingResults() {
+        return maximumPendingResults > 0 ? maximumPendingResults : parallelism * 2;
+    }
+
+    public void setMaximumPendingResults(int maximumPendingResults) {
+        this.maximumPendingResults = maximumPendingResults;
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    public Predicate<Path> getFileFilter() {
+        return fileFilter;
+    }
+
+    public void setFileFilter(Predicate<Path> fileFilter) {
+        this.fileFilter = fileFilter;
+    }
+
+    public Predicate<Path> getArchiveFilter() {
+        return archiveFilter;
+    }
+
+    public void setArchiveFilter(Predicate<Path> archiveFilter) {
+        this.archiveFilter = archiveFilter;
+    }
+
+    public Predicate<String> getEntryFilter() {
+        return entryFilter;
+    }
+
+    public void setEntryFilter(Predicate<String> entryFilter) {
+        this.entryFilter = entryFilter;
+    }
+
+    public void ingest(Path directory, Consumer<IngestResult> resultConsumer) {
+        try (var results = ingest(directory)) {
+            results.forEach(resultConsumer);
+        }
+    }
+
+    public Stream<IngestResult> ingest(Path directory) {
+        var ownedExecutorService = executorService == null ? newExecutorService() : null;
+        var iterator = new IngestIterator(directory, ownedExecutorService == null ? executorService : ownedExecutorService);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    iterator.close();
+
+                    if (ownedExecutorService != null)
+                        discard(ownedExecutorService.shutdownNow());
+                });
+    }
+
+    private static void discard(List<Runnable> runnables) {
+        UncheckedIOException failure = null;
+
+        for (var runnable : runnables) {
+            if (!(runnable instanceof ArchiveEntryTask))
+                continue;
+
+            try {
+                ((ArchiveEntryTask) runnable).archive.release();
+            } catch (UncheckedIOException exception) {
+                if (failure == null)
+                    failure = exception;
+                else
+                    failure.addSuppressed(exception);
+            }
+        }
+
+        if (failure != null)
+            throw failure;
+    }
+
+    private ExecutorService newExecutorService() {
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            var thread = new Thread(runnable, "pattern-ingest");
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    private static boolean hasPatternExtension(Path path) {
+        return hasPatternExtension(path.getFileName().toString());
+    }
+
+    private static boolean hasPatternExtension(String name) {
+        var fileName = name.toLowerCase();
+
+        if (fileName.endsWith(".gz"))
+            fileName = fileName.substring(0, fileName.length() - 3);
+
+        return fileName.endsWith(".rle") || fileName.endsWith(".lif") || fileName.endsWith(".life") || fileName.endsWith(".mc");
+    }
+
+    private static boolean hasArchiveExtension(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".zip");
+    }
+
+    private final class IngestIterator implements Iterator<IngestResult> {
+
+        private final Deque<Path> directories = new ArrayDeque<>();
+        private final Deque<DirectoryStream<Path>> directoryStreams = new ArrayDeque<>();
+        private final Deque<Iterator<Path>> directoryIterators = new ArrayDeque<>();
+        private final LinkedBlockingQueue<IngestResult> results = new LinkedBlockingQueue<>();
+        private final ExecutorService executorService;
+        private final int maximumPendingResults = getMaximumPendingResults();
+        private Archive archive;
+        private int pendingResults;
+        private boolean closed;
+
+        private IngestIterator(Path directory, ExecutorService executorService) {
+            this.executorService = executorService;
+
+            if (Files.isRegularFile(directory) && archiveFilter.test(directory))
+                openArchive(directory);
+            else
+                openDirectory(directory);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!closed && pendingResults < maximumPendingResults)
+                if (!submitNext())
+                    break;
+
+            return pendingResults > 0;
+        }
+
+        @Override
+        public IngestResult next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            try {
+                var result = results.take();
+
+                pendingResults--;
+
+                return result;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an ingest result", exception);
+            }
+        }
+
+        private boolean submitNext() {
+            while (true) {
+                if (archive != null) {
+                    var entry = archive.nextEntry();
+
+                    if (entry != null) {
+                        submit(archive, entry);
+                        return true;
+                    }
+
+                    closeArchive();
+                }
+
+                var path = nextFile();
+
+                if (path == null)
+                    return false;
+
+                if (archiveFilter.test(path))
+                    openArchive(path);
+                else {
+                    submit(path);
+                    return true;
+                }
+            }
+        }
+
+        private void submit(Archive archive, ZipEntry entry) {
+            pendingResults++;
+            archive.retain();
+            executorService.execute(new ArchiveEntryTask(archive, entry, results));
+        }
+
+        private void submit(Path path) {
+            pendingResults++;
+            executorService.execute(() -> {
+                IngestResult result;
+
+                try {
+                    result = IngestResult.success(path, registry.parse(path));
+                } catch (Throwable throwable) {
+                    result = IngestResult.failure(path, throwable);
+                }
+
+                results.add(result);
+            });
+        }
+
+        private Path nextFile() {
+            while (!directoryIterators.isEmpty()) {
+                var directoryIterator = directoryIterators.peek();
+                Path path;
+
+                try {
+                    if (!directoryIterator.hasNext()) {
+                        closeDirectory();
+                        continue;
+                    }
+
+                    path = directoryIterator.next();
+                } catch (DirectoryIteratorException exception) {
+                    fail(directories.peek(), exception.getCause());
+                    closeDirectory();
+                    continue;
+                }
+
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))
+                    openDirectory(path);
+                else if (Files.isRegularFile(path) && (fileFilter.test(path) || archiveFilter.test(path)))
+                    return path;
+            }
+
+            return null;
+        }
+
+        private void openDirectory(Path directory) {
+            try {
+                var directoryStream = Files.newDirectoryStream(directory);
+
+                directories.push(directory);
+                directoryStreams.push(directoryStream);
+                directoryIterators.push(directoryStream.iterator());
+            } catch (IOException exception) {
+                fail(directory, exception);
+            }
+        }
+
+        private void closeDirectory() {
+            directories.pop();
+            directoryIterators.pop();
+
+            try {
+                directoryStreams.pop().close();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        private void openArchive(Path path) {
+            try {
+                archive = new Archive(path, new ZipFile(path.toFile()));
+            } catch (IOException | RuntimeException exception) {
+                fail(path, exception);
+            }
+        }
+
+        private void closeArchive() {
+            var archive = this.archive;
+
+            this.archive = null;
+
+            try {
+                archive.release();
+            } catch (UncheckedIOException exception) {
+                fail(archive.path, exception.getCause());
+            }
+        }
+
+        private void fail(Path path, Throwable failure) {
+            pendingResults++;
+            results.add(IngestResult.failure(path, failure));
+        }
+
+        private void close() {
+            closed = true;
+
+            if (archive != null)
+                closeArchive();
+
+            while (!directoryIterators.isEmpty())
+                closeDirectory();
+        }
+    }
+
+    private final class ArchiveEntryTask implements Runnable {
+
+        private final Archive archive;
+        private final ZipEntry entry;
+        private final LinkedBlockingQueue<IngestResult> results;
+
+        private ArchiveEntryTask(Archive archive, ZipEntry entry, LinkedBlockingQueue<IngestResult> results) {
+            this.archive = archive;
+            this.entry = entry;
+            this.results = results;
+        }
+
+        @Override
+        public void run() {
+            IngestResult result;
+
+            try {
+                try (var inputStream = archive.zipFile.getInputStream(entry)) {
+                    result = IngestResult.success(archive.path, entry.getName(), registry.parse(inputStream));
+                } finally {
+                    archive.release();
+                }
+            } catch (Throwable throwable) {
+                result = IngestResult.failure(archive.path, entry.getName(), throwable);
+            }
+
+            results.add(result);
+        }
+    }
+
+    private final class Archive {
+
+        private final Path path;
+        private final ZipFile zipFile;
+        private final Enumeration<? extends ZipEntry> entries;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Archive(Path path, ZipFile zipFile) {
+            this.path = path;
+            this.zipFile = zipFile;
+            entries = zipFile.entries();
+        }
+
+        private ZipEntry nextEntry() {
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+
+                if (!entry.isDirectory() && entryFilter.test(entry.getName()))
+                    return entry;
+            }
+
+            return null;
+        }
+
+        private void retain() {
+            references.incrementAndGet();
+        }
+
+        private void release() {
+            if (references.decrementAndGet() != 0)
+                return;
+
+            try {
+                zipFile.close();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package io.github.robertograham.cellularautomata.parsers.common.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public abstract class ByteInput implements Closeable {
+
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+    private static final long MAXIMUM_MAPPED_REGION_SIZE = 1L << 30;
+
+    public static ByteInput of(InputStream inputStream) {
+        return new StreamByteInput(inputStream);
+    }
+
+    public static ByteInput of(ByteBuffer buffer) {
+        return new BufferByteInput(buffer);
+    }
+
+    public static ByteInput map(Path path) throws IOException {
+        return map(path, 0);
+    }
+
+    public static ByteInput map(Path path, long offset) throws IOException {
+        return new MappedByteInput(path, FileChannel.open(path, StandardOpenOption.READ), offset);
+    }
+
+    public abstract ByteBuffer buffer();
+
+    public abstract boolean fill() throws IOException;
+
+    public abstract long remaining() throws IOException;
+
+    public abstract ByteBuffer readFully() throws IOException;
+
+    public abstract ByteSource retainRemaining() throws IOException;
+
+    public boolean readLine(ByteLine line) throws IOException {
+        line.clear();
+
+        if (!buffer().hasRemaining() && !fill())
+            return false;
+
+        while (true) {
+            var buffer = buffer();
+            var position = buffer.position();
+            var limit = buffer.limit();
+
+            for (var index = position; index < limit; index++)
+                if (buffer.get(index) == '\n') {
+                    line.append(buffer, position, index);
+                    buffer.position(index + 1);
+                    return true;
+                }
+
+            line.append(buffer, position, limit);
+            buffer.position(limit);
+
+            if (!fill())
+                return true;
+        }
+    }
+
+    private static final class StreamByteInput extends ByteInput {
+
+        private final InputStream inputStream;
+        private final byte[] bytes = new byte[STREAM_BUFFER_SIZE];
+        private final ByteBuffer buffer = ByteBuffer.wrap(bytes).limit(0);
+
+        private StreamByteInput(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public boolean fill() throws IOException {
+            var read = inputStream.read(bytes);
+
+            if (read < 0)
+                return false;
+
+            buffer.limit(read).position(0);
+
+            return true;
+        }
+
+        @Override
+        public long remaining() {
+            return -1;
+        }
+
+        @Override
+        public ByteBuffer readFully() throws IOException {
+            var rest = inputStream.readAllBytes();
+            var all = new byte[buffer.remaining() + rest.length];
+
+            buffer.get(all, 0, buffer.remaining());
+            System.arraycopy(rest, 0, all, all.length - rest.length, rest.length);
+
+            return ByteBuffer.wrap(all);
+        }
+
+        @Override
+        public ByteSource retainRemaining() throws IOException {
+            var remaining = readFully();
+
+            return () -> of(remaining.duplicate());
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    private static final class BufferByteInput extends ByteInput {
+
+        private final ByteBuffer buffer;
+
+        private BufferByteInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public boolean fill() {
+            return false;
+        }
+
+        @Override
+        public long remaining() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public ByteBuffer readFully() {
+            var fully = buffer.slice();
+
+            buffer.position(buffer.limit());
+
+            return fully;
+        }
+
+        @Override
+        public ByteSource retainRemaining() {
+            var remaining = readFully();
+
+            return () -> of(remaining.duplicate());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class MappedByteInput extends ByteInput {
+
+        private final Path path;
+        private final FileChannel fileChannel;
+        private final long size;
+        private long offset;
+        private ByteBuffer buffer = ByteBuffer.allocate(0);
+
+        private MappedByteInput(Path path, FileChannel fileChannel, long offset) throws IOException {
+            this.path = path;
+            this.fileChannel = fileChannel;
+            size = fileChannel.size();
+            this.offset = Math.min(offset, size);
+        }
+
+        @Override
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public boolean fill() throws IOException {
+            if (offset >= size)
+                return false;
+
+            var regionSize = Math.min(size - offset, MAXIMUM_MAPPED_REGION_SIZE);
+
+            buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, regionSize);
+            offset += regionSize;
+
+            return true;
+        }
+
+        @Override
+        public long remaining() {
+            return buffer.remaining() + size - offset;
+        }
+
+        @Override
+        public ByteBuffer readFully() throws IOException {
+            var remaining = remaining();
+
+            if (remaining > Integer.MAX_VALUE)
+                throw new IOException("Cannot read " + remaining + " bytes into a single buffer");
+
+            var fully = offset == size
+                    ? buffer.slice()
+                    : fileChannel.map(FileChannel.MapMode.READ_ONLY, offset - buffer.remaining(), remaining);
+
+            buffer = ByteBuffer.allocate(0);
+            offset = size;
+
+            return fully;
+        }
+
+        @Override
+        public ByteSource retainRemaining() {
+            var remainingOffset = offset - buffer.remaining();
+
+            buffer = ByteBuffer.allocate(0);
+            offset = size;
+
+            return () -> map(path, remainingOffset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            fileChannel.close();
+        }
+    }
+}
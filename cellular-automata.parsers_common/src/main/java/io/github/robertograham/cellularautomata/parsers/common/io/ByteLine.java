@@ -0,0 +1,192 @@
+package io.github.robertograham.cellularautomata.parsers.common.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class ByteLine {
+
+    private byte[] bytes = new byte[128];
+    private int start;
+    private int end;
+    private int cursor;
+
+    public int length() {
+        return end - start;
+    }
+
+    public boolean isEmpty() {
+        return start == end;
+    }
+
+    public byte byteAt(int index) {
+        return bytes[start + index];
+    }
+
+    public ByteLine trim() {
+        while (start < end && isWhitespace(bytes[start]))
+            start++;
+
+        while (end > start && isWhitespace(bytes[end - 1]))
+            end--;
+
+        cursor = start;
+
+        return this;
+    }
+
+    public boolean startsWith(String prefix) {
+        if (prefix.length() > length())
+            return false;
+
+        for (var index = 0; index < prefix.length(); index++)
+            if (bytes[start + index] != prefix.charAt(index))
+                return false;
+
+        return true;
+    }
+
+    public ByteLine rewind() {
+        cursor = start;
+
+        return this;
+    }
+
+    public void skip(int count) {
+        cursor = Math.min(cursor + count, end);
+    }
+
+    public boolean skipIf(char expected) {
+        if (cursor == end || bytes[cursor] != expected)
+            return false;
+
+        cursor++;
+
+        return true;
+    }
+
+    public boolean skipIf(String expected) {
+        if (expected.length() > end - cursor)
+            return false;
+
+        for (var index = 0; index < expected.length(); index++)
+            if (bytes[cursor + index] != expected.charAt(index))
+                return false;
+
+        cursor += expected.length();
+
+        return true;
+    }
+
+    public boolean skipIfBetween(char minimum, char maximum) {
+        if (cursor == end || bytes[cursor] < minimum || bytes[cursor] > maximum)
+            return false;
+
+        cursor++;
+
+        return true;
+    }
+
+    public int skipRun(char value) {
+        var from = cursor;
+
+        while (cursor < end && bytes[cursor] == value)
+            cursor++;
+
+        return cursor - from;
+    }
+
+    public boolean skipWhitespace() {
+        var skipped = cursor;
+
+        while (cursor < end && isWhitespace(bytes[cursor]))
+            cursor++;
+
+        return cursor > skipped;
+    }
+
+    public boolean hasNextLong() {
+        var index = cursor < end && bytes[cursor] == '-' ? cursor + 1 : cursor;
+
+        return index < end && isDigit(bytes[index]);
+    }
+
+    public boolean hasNextUnsignedLong() {
+        return cursor < end && isDigit(bytes[cursor]);
+    }
+
+    public long nextLong() {
+        if (!hasNextLong())
+            throw new NumberFormatException("No integer at index " + (cursor - start));
+
+        var negative = bytes[cursor] == '-';
+        var value = 0L;
+
+        if (negative)
+            cursor++;
+
+        while (cursor < end && isDigit(bytes[cursor])) {
+            var digit = bytes[cursor++] - '0';
+
+            if (value < (Long.MIN_VALUE + digit) / 10)
+                throw new NumberFormatException("Integer does not fit in a long");
+
+            value = value * 10 - digit;
+        }
+
+        if (!negative) {
+            if (value == Long.MIN_VALUE)
+                throw new NumberFormatException("Integer does not fit in a long");
+
+            value = -value;
+        }
+
+        return value;
+    }
+
+    public boolean isAtEnd() {
+        return cursor == end;
+    }
+
+    public String remainingToString() {
+        return new String(bytes, cursor, end - cursor, StandardCharsets.UTF_8);
+    }
+
+    public String toString(int beginIndex) {
+        return new String(bytes, start + beginIndex, length() - beginIndex, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return toString(0);
+    }
+
+    void clear() {
+        start = 0;
+        end = 0;
+        cursor = 0;
+    }
+
+    void append(ByteBuffer buffer, int from, int to) {
+        var count = to - from;
+
+        if (end + count > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, end + count));
+
+        if (buffer.hasArray())
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + from, bytes, end, count);
+        else
+            for (var index = from; index < to; index++)
+                bytes[end + index - from] = buffer.get(index);
+
+        end += count;
+    }
+
+    private static boolean isWhitespace(byte character) {
+        return (character & 0xFF) <= ' ';
+    }
+
+    private static boolean isDigit(byte character) {
+        return character >= '0' && character <= '9';
+    }
+}
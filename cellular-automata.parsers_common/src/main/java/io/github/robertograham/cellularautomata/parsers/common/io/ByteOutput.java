@@ -0,0 +1,148 @@
+package io.github.robertograham.cellularautomata.parsers.common.io;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+public abstract class ByteOutput implements Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private final byte[] digits = new byte[20];
+    private int position;
+
+    public static ByteOutput of(OutputStream outputStream) {
+        return new StreamByteOutput(outputStream);
+    }
+
+    public static ByteOutput of(WritableByteChannel channel) {
+        return new ChannelByteOutput(channel);
+    }
+
+    public void write(byte value) throws IOException {
+        if (position == bytes.length)
+            drain();
+
+        bytes[position++] = value;
+    }
+
+    public void write(byte value, long count) throws IOException {
+        while (count > 0) {
+            if (position == bytes.length)
+                drain();
+
+            var length = (int) Math.min(count, bytes.length - position);
+
+            for (var index = 0; index < length; index++)
+                bytes[position++] = value;
+
+            count -= length;
+        }
+    }
+
+    public void write(byte[] values) throws IOException {
+        for (var offset = 0; offset < values.length; ) {
+            if (position == bytes.length)
+                drain();
+
+            var length = Math.min(values.length - offset, bytes.length - position);
+
+            System.arraycopy(values, offset, bytes, position, length);
+            position += length;
+            offset += length;
+        }
+    }
+
+    public void write(String value) throws IOException {
+        for (var index = 0; index < value.length(); index++)
+            if (value.charAt(index) >= 0x80) {
+                write(value.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+        for (var index = 0; index < value.length(); index++)
+            write((byte) value.charAt(index));
+    }
+
+    public void write(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            write("-9223372036854775808");
+            return;
+        }
+
+        if (value < 0) {
+            write((byte) '-');
+            value = -value;
+        }
+
+        var index = digits.length;
+
+        do {
+            digits[--index] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        while (index < digits.length)
+            write(digits[index++]);
+    }
+
+    public void newLine() throws IOException {
+        write((byte) '\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    protected abstract void drain(ByteBuffer buffer) throws IOException;
+
+    private void drain() throws IOException {
+        if (position == 0)
+            return;
+
+        buffer.limit(position).position(0);
+        drain(buffer);
+        position = 0;
+    }
+
+    private static final class StreamByteOutput extends ByteOutput {
+
+        private final OutputStream outputStream;
+
+        private StreamByteOutput(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        protected void drain(ByteBuffer buffer) throws IOException {
+            outputStream.write(buffer.array(), buffer.position(), buffer.remaining());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            super.flush();
+            outputStream.flush();
+        }
+    }
+
+    private static final class ChannelByteOutput extends ByteOutput {
+
+        private final WritableByteChannel channel;
+
+        private ChannelByteOutput(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        protected void drain(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+}
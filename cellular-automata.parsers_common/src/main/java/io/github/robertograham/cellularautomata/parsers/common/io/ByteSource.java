@@ -0,0 +1,9 @@
+package io.github.robertograham.cellularautomata.parsers.common.io;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface ByteSource {
+
+    ByteInput open() throws IOException;
+}
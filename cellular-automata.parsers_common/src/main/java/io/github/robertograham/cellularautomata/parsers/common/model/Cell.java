@@ -36,7 +36,11 @@ public class Cell {
 
     @Override
     public int hashCode() {
-        return Objects.hash(coordinate, state);
+        return 31 * (31 + Objects.hashCode(coordinate)) + Long.hashCode(state);
+    }
+
+    static int hashCode(long x, long y, long state) {
+        return 31 * (31 + Coordinate.hashCode(x, y)) + Long.hashCode(state);
     }
 
     @Override
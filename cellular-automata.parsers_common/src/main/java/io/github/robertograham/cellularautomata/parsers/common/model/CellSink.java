@@ -0,0 +1,12 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+@FunctionalInterface
+public interface CellSink {
+
+    void accept(long x, long y, long state);
+
+    default void acceptRun(long x, long y, long length, long state) {
+        for (var i = 0L; i < length; i++)
+            accept(x + i, y, state);
+    }
+}
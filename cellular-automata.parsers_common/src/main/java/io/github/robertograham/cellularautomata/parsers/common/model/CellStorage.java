@@ -0,0 +1,5 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+public enum CellStorage {
+    SPARSE, DENSE, AUTO, QUADTREE, OFF_HEAP
+}
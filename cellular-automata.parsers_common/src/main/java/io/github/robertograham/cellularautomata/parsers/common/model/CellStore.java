@@ -0,0 +1,101 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+import java.util.AbstractSet;
+
+public abstract class CellStore extends AbstractSet<Cell> implements CellSink {
+
+    private long modificationCount;
+    private long hashCodeModificationCount = -1;
+    private int hashCode;
+
+    public abstract boolean add(long x, long y, long state);
+
+    public abstract boolean remove(long x, long y);
+
+    public abstract boolean contains(long x, long y);
+
+    public abstract long state(long x, long y);
+
+    public abstract void forEachCell(CellSink cellSink);
+
+    public final long modificationCount() {
+        return modificationCount;
+    }
+
+    protected final void modified() {
+        modificationCount++;
+    }
+
+    public CellStore newCellStore(int expectedSize) {
+        return new PackedCellStore(expectedSize);
+    }
+
+    @Override
+    public void accept(long x, long y, long state) {
+        add(x, y, state);
+    }
+
+    @Override
+    public boolean add(Cell cell) {
+        return add(cell.coordinate().x(), cell.coordinate().y(), cell.state());
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        if (!contains(object))
+            return false;
+
+        var coordinate = ((Cell) object).coordinate();
+
+        return remove(coordinate.x(), coordinate.y());
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        if (!(object instanceof Cell))
+            return false;
+
+        var cell = (Cell) object;
+        var x = cell.coordinate().x();
+        var y = cell.coordinate().y();
+
+        return contains(x, y) && state(x, y) == cell.state();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+
+        if (!(object instanceof CellStore))
+            return super.equals(object);
+
+        var cellStore = (CellStore) object;
+
+        if (size() != cellStore.size())
+            return false;
+
+        var matches = new long[1];
+
+        forEachCell((x, y, state) -> {
+            if (cellStore.contains(x, y) && cellStore.state(x, y) == state)
+                matches[0]++;
+        });
+
+        return matches[0] == size();
+    }
+
+    @Override
+    public int hashCode() {
+        if (hashCodeModificationCount == modificationCount)
+            return hashCode;
+
+        var hashCode = new int[1];
+
+        forEachCell((x, y, state) -> hashCode[0] += Cell.hashCode(x, y, state));
+        this.hashCode = hashCode[0];
+        hashCodeModificationCount = modificationCount;
+
+        return hashCode[0];
+    }
+}
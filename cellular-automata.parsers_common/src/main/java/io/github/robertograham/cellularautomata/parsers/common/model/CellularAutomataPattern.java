@@ -5,18 +5,81 @@ import java.util.*;
 public abstract class CellularAutomataPattern {
 
     private final Properties properties = new Properties();
-    private final Set<Cell> cells = new HashSet<>();
+    private CellStore cells = new PackedCellStore();
+    private Runnable cellStoreLoader;
     private final List<String> comments = new ArrayList<>();
     private Coordinate origin = new Coordinate(0, 0);
+    private PatternFingerprint fingerprint;
+    private CellStore fingerprintCellStore;
+    private long fingerprintModificationCount;
 
     public Properties properties() {
         return properties;
     }
 
     public Set<Cell> cells() {
+        return cellStore();
+    }
+
+    public CellStore cellStore() {
+        if (cellStoreLoader != null) {
+            var loader = cellStoreLoader;
+
+            cellStoreLoader = null;
+
+            try {
+                loader.run();
+            } catch (RuntimeException | Error exception) {
+                cellStoreLoader = loader;
+                throw exception;
+            }
+        }
+
         return cells;
     }
 
+    public void setCellStore(CellStore cellStore) {
+        cells = cellStore;
+        cellStoreLoader = null;
+    }
+
+    public void replaceCellStore(CellStore cellStore) {
+        var replaced = cells;
+
+        setCellStore(cellStore);
+
+        if (replaced == cellStore || !(replaced instanceof AutoCloseable))
+            return;
+
+        try {
+            ((AutoCloseable) replaced).close();
+        } catch (RuntimeException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new IllegalStateException("Could not close the replaced cell store", exception);
+        }
+    }
+
+    public boolean isCellStoreLoaded() {
+        return cellStoreLoader == null;
+    }
+
+    public void setCellStoreLoader(Runnable cellStoreLoader) {
+        this.cellStoreLoader = cellStoreLoader;
+    }
+
+    public PatternFingerprint fingerprint() {
+        var cellStore = cellStore();
+
+        if (fingerprint == null || fingerprintCellStore != cellStore || fingerprintModificationCount != cellStore.modificationCount()) {
+            fingerprint = PatternFingerprint.of(cellStore);
+            fingerprintCellStore = cellStore;
+            fingerprintModificationCount = cellStore.modificationCount();
+        }
+
+        return fingerprint;
+    }
+
     public List<String> comments() {
         return comments;
     }
@@ -40,21 +103,21 @@ public abstract class CellularAutomataPattern {
         CellularAutomataPattern cellularAutomataPattern = (CellularAutomataPattern) object;
 
         return Objects.equals(properties, cellularAutomataPattern.properties) &&
-                Objects.equals(cells, cellularAutomataPattern.cells) &&
+                Objects.equals(cellStore(), cellularAutomataPattern.cellStore()) &&
                 Objects.equals(comments, cellularAutomataPattern.comments) &&
                 Objects.equals(origin, cellularAutomataPattern.origin);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(properties, cells, comments, origin);
+        return Objects.hash(properties, cellStore(), comments, origin);
     }
 
     @Override
     public String toString() {
         return "CellularAutomataPattern{" +
                 "properties=" + properties +
-                ", cells=" + cells +
+                ", cells=" + cellStore() +
                 ", comments=" + comments +
                 ", origin=" + origin +
                 '}';
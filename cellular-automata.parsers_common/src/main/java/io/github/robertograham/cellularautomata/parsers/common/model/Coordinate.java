@@ -1,7 +1,5 @@
 package io.github.robertograham.cellularautomata.parsers.common.model;
 
-import java.util.Objects;
-
 public final class Coordinate {
 
     private final long x;
@@ -52,7 +50,11 @@ public final class Coordinate {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return hashCode(x, y);
+    }
+
+    static int hashCode(long x, long y) {
+        return 31 * (31 + Long.hashCode(x)) + Long.hashCode(y);
     }
 
     @Override
@@ -0,0 +1,320 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class DenseCellStore extends CellStore {
+
+    private static final int MAXIMUM_WORDS = Integer.MAX_VALUE - 8;
+
+    private final long originX;
+    private final long originY;
+    private final long width;
+    private final long height;
+    private final int wordsPerRow;
+    private final long[] words;
+    private int size;
+
+    public DenseCellStore(long originX, long originY, long width, long height) {
+        if (!fits(width, height))
+            throw new IllegalArgumentException("Dense cell store cannot hold " + width + " by " + height + " cells");
+
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        wordsPerRow = (int) wordsPerRow(width);
+        words = new long[(int) (wordsPerRow * height)];
+    }
+
+    DenseCellStore(long originX, long originY, long width, long height, long[] words) {
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        this.words = words;
+        wordsPerRow = (int) wordsPerRow(width);
+
+        for (var word : words)
+            size += Long.bitCount(word);
+    }
+
+    public static boolean fits(long width, long height) {
+        if (width < 0 || height < 0 || width > (long) MAXIMUM_WORDS << 6)
+            return false;
+
+        var wordsPerRow = wordsPerRow(width);
+
+        return wordsPerRow == 0 || height <= MAXIMUM_WORDS / wordsPerRow;
+    }
+
+    public static long bytesFor(long width, long height) {
+        if (!fits(width, height))
+            return Long.MAX_VALUE;
+
+        return wordsPerRow(width) * height * Long.BYTES;
+    }
+
+    public static DenseCellStore of(CellStore cellStore) {
+        var bounds = new long[]{Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+
+        cellStore.forEachCell((x, y, state) -> {
+            bounds[0] = Math.min(bounds[0], x);
+            bounds[1] = Math.min(bounds[1], y);
+            bounds[2] = Math.max(bounds[2], x);
+            bounds[3] = Math.max(bounds[3], y);
+        });
+
+        if (bounds[0] > bounds[2])
+            return new DenseCellStore(0, 0, 0, 0);
+
+        return of(cellStore, bounds[0], bounds[1], bounds[2] - bounds[0] + 1, bounds[3] - bounds[1] + 1);
+    }
+
+    public static DenseCellStore of(CellStore cellStore, long originX, long originY, long width, long height) {
+        var denseCellStore = new DenseCellStore(originX, originY, width, height);
+
+        cellStore.forEachCell(denseCellStore);
+
+        return denseCellStore;
+    }
+
+    public PackedCellStore toPackedCellStore() {
+        var packedCellStore = new PackedCellStore(size);
+
+        forEachCell(packedCellStore);
+
+        return packedCellStore;
+    }
+
+    public long originX() {
+        return originX;
+    }
+
+    public long originY() {
+        return originY;
+    }
+
+    public long width() {
+        return width;
+    }
+
+    public long height() {
+        return height;
+    }
+
+    public int wordsPerRow() {
+        return wordsPerRow;
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    public long word(long row, int wordIndex) {
+        return words[(int) (row * wordsPerRow) + wordIndex];
+    }
+
+    public void setWord(long row, int wordIndex, long word) {
+        var usedBits = width - ((long) wordIndex << 6);
+
+        if (usedBits < 64 && word >>> usedBits != 0)
+            throw new IllegalArgumentException("Word " + wordIndex + " has bits outside the dense cell store bounds");
+
+        var index = (int) (row * wordsPerRow) + wordIndex;
+
+        modified();
+        size += Long.bitCount(word) - Long.bitCount(words[index]);
+        words[index] = word;
+    }
+
+    public boolean isInBounds(long x, long y) {
+        return x >= originX && Long.compareUnsigned(x - originX, width) < 0
+                && y >= originY && Long.compareUnsigned(y - originY, height) < 0;
+    }
+
+    public long population() {
+        var population = 0L;
+
+        for (var word : words)
+            population += Long.bitCount(word);
+
+        return population;
+    }
+
+    public long rowPopulation(long row) {
+        var population = 0L;
+        var start = (int) (row * wordsPerRow);
+
+        for (var index = start; index < start + wordsPerRow; index++)
+            population += Long.bitCount(words[index]);
+
+        return population;
+    }
+
+    public void forEachCellInRow(long row, CellSink cellSink) {
+        var start = (int) (row * wordsPerRow);
+        var y = originY + row;
+
+        for (var wordIndex = 0; wordIndex < wordsPerRow; wordIndex++)
+            for (var word = words[start + wordIndex]; word != 0; word &= word - 1)
+                cellSink.accept(originX + ((long) wordIndex << 6) + Long.numberOfTrailingZeros(word), y, 1);
+    }
+
+    @Override
+    public boolean add(long x, long y, long state) {
+        checkCell(x, y, state);
+
+        var index = index(x, y);
+        var bit = 1L << (x - originX);
+
+        if ((words[index] & bit) != 0)
+            return false;
+
+        modified();
+        words[index] |= bit;
+        size++;
+
+        return true;
+    }
+
+    @Override
+    public void acceptRun(long x, long y, long length, long state) {
+        if (length <= 0)
+            return;
+
+        checkCell(x, y, state);
+        checkCell(x + length - 1, y, state);
+
+        var previousSize = size;
+        var rowStart = (int) ((y - originY) * wordsPerRow);
+        var from = x - originX;
+        var to = from + length;
+
+        while (from < to) {
+            var index = rowStart + (int) (from >>> 6);
+            var wordEnd = Math.min(to, (from | 63) + 1);
+            var bits = wordEnd - from == 64 ? -1L : ((1L << (wordEnd - from)) - 1) << (from & 63);
+
+            size += Long.bitCount(bits & ~words[index]);
+            words[index] |= bits;
+            from = wordEnd;
+        }
+
+        if (size != previousSize)
+            modified();
+    }
+
+    @Override
+    public boolean remove(long x, long y) {
+        if (!isInBounds(x, y))
+            return false;
+
+        var index = index(x, y);
+        var bit = 1L << (x - originX);
+
+        if ((words[index] & bit) == 0)
+            return false;
+
+        modified();
+        words[index] &= ~bit;
+        size--;
+
+        return true;
+    }
+
+    @Override
+    public boolean contains(long x, long y) {
+        return isInBounds(x, y) && (words[index(x, y)] & 1L << (x - originX)) != 0;
+    }
+
+    @Override
+    public long state(long x, long y) {
+        return contains(x, y) ? 1 : 0;
+    }
+
+    @Override
+    public void forEachCell(CellSink cellSink) {
+        for (var row = 0L; row < height; row++)
+            forEachCellInRow(row, cellSink);
+    }
+
+    @Override
+    public Iterator<Cell> iterator() {
+        return new DenseCellIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        modified();
+        Arrays.fill(words, 0);
+        size = 0;
+    }
+
+    private static long wordsPerRow(long width) {
+        return (width + 63) >>> 6;
+    }
+
+    private int index(long x, long y) {
+        return (int) ((y - originY) * wordsPerRow + ((x - originX) >>> 6));
+    }
+
+    private void checkCell(long x, long y, long state) {
+        if (state != 1)
+            throw new IllegalArgumentException("Dense cell store only holds cells of state 1");
+
+        if (!isInBounds(x, y))
+            throw new IllegalArgumentException("Cell (" + x + ", " + y + ") lies outside the dense cell store bounds");
+    }
+
+    private final class DenseCellIterator implements Iterator<Cell> {
+
+        private int index = -1;
+        private long word;
+        private long lastX;
+        private long lastY;
+        private boolean removable;
+
+        @Override
+        public boolean hasNext() {
+            while (word == 0) {
+                if (index + 1 >= words.length)
+                    return false;
+
+                word = words[++index];
+            }
+
+            return true;
+        }
+
+        @Override
+        public Cell next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            var bit = Long.numberOfTrailingZeros(word);
+
+            word &= word - 1;
+            lastX = originX + ((long) (index % wordsPerRow) << 6) + bit;
+            lastY = originY + index / wordsPerRow;
+            removable = true;
+
+            return new Cell(new Coordinate(lastX, lastY), 1);
+        }
+
+        @Override
+        public void remove() {
+            if (!removable)
+                throw new IllegalStateException();
+
+            DenseCellStore.this.remove(lastX, lastY);
+            removable = false;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+public enum DihedralTransform {
+
+    IDENTITY(1, 0, 0, 1),
+    ROTATE_90(0, -1, 1, 0),
+    ROTATE_180(-1, 0, 0, -1),
+    ROTATE_270(0, 1, -1, 0),
+    FLIP_HORIZONTAL(-1, 0, 0, 1),
+    FLIP_VERTICAL(1, 0, 0, -1),
+    TRANSPOSE(0, 1, 1, 0),
+    ANTI_TRANSPOSE(0, -1, -1, 0);
+
+    private final int xx;
+    private final int xy;
+    private final int yx;
+    private final int yy;
+
+    DihedralTransform(int xx, int xy, int yx, int yy) {
+        this.xx = xx;
+        this.xy = xy;
+        this.yx = yx;
+        this.yy = yy;
+    }
+
+    public long x(long x, long y) {
+        return xx * x + xy * y;
+    }
+
+    public long y(long x, long y) {
+        return yx * x + yy * y;
+    }
+
+    public boolean swapsAxes() {
+        return xx == 0;
+    }
+
+    public DihedralTransform inverse() {
+        return of(xx, yx, xy, yy);
+    }
+
+    public DihedralTransform then(DihedralTransform next) {
+        return of(next.xx * xx + next.xy * yx, next.xx * xy + next.xy * yy,
+                next.yx * xx + next.yy * yx, next.yx * xy + next.yy * yy);
+    }
+
+    private static DihedralTransform of(int xx, int xy, int yx, int yy) {
+        for (var transform : values())
+            if (transform.xx == xx && transform.xy == xy && transform.yx == yx && transform.yy == yy)
+                return transform;
+
+        throw new IllegalStateException("Not a dihedral transform");
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+public interface DimensionedPattern {
+
+    Long getWidth();
+
+    void setWidth(long width);
+
+    Long getHeight();
+
+    void setHeight(long height);
+}
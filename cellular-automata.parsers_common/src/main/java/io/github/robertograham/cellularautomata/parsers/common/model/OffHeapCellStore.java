@@ -0,0 +1,669 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+public final class OffHeapCellStore extends CellStore implements AutoCloseable {
+
+    private static final int RECORD_LONGS = 3;
+    private static final int SEGMENT_SHIFT = 22;
+    private static final long SEGMENT_RECORDS = 1L << SEGMENT_SHIFT;
+    private static final long INITIAL_RECORDS = 1 << 10;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int RUN_RECORDS = 1 << 16;
+    private static final long PENDING_SCAN_LIMIT = 1 << 12;
+
+    private final Path directory;
+    private Records records;
+    private long sortedCount;
+    private long count;
+    private long liveCount;
+
+    private OffHeapCellStore(Path directory) {
+        this.directory = directory;
+        records = new Records(directory);
+    }
+
+    public static OffHeapCellStore direct() {
+        return new OffHeapCellStore(null);
+    }
+
+    public static OffHeapCellStore mapped() {
+        return mapped(Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    public static OffHeapCellStore mapped(Path directory) {
+        return new OffHeapCellStore(Objects.requireNonNull(directory));
+    }
+
+    public boolean isMapped() {
+        return directory != null;
+    }
+
+    public boolean isClosed() {
+        return records == null;
+    }
+
+    public long cellCount() {
+        consolidate();
+
+        return liveCount;
+    }
+
+    public void ensureCapacity(long cells) {
+        checkOpen();
+
+        if (cells > 0)
+            records.ensureCapacity(count + cells);
+    }
+
+    @Override
+    public void close() {
+        if (records == null)
+            return;
+
+        var closing = records;
+
+        records = null;
+        closing.close();
+    }
+
+    @Override
+    public CellStore newCellStore(int expectedSize) {
+        var cellStore = new OffHeapCellStore(directory);
+
+        cellStore.ensureCapacity(expectedSize);
+
+        return cellStore;
+    }
+
+    @Override
+    public void accept(long x, long y, long state) {
+        checkState(state);
+        modified();
+        append(x, y, state);
+    }
+
+    @Override
+    public void acceptRun(long x, long y, long length, long state) {
+        if (length <= 0)
+            return;
+
+        checkState(state);
+        modified();
+        records.ensureCapacity(count + length);
+
+        for (var index = 0L; index < length; index++)
+            append(x + index, y, state);
+    }
+
+    @Override
+    public boolean add(long x, long y, long state) {
+        checkState(state);
+
+        if (count - sortedCount > PENDING_SCAN_LIMIT)
+            consolidate();
+
+        var index = -1L;
+
+        for (var pending = count - 1; pending >= sortedCount && index < 0; pending--)
+            if (records.y(pending) == y && records.x(pending) == x)
+                index = pending;
+
+        if (index < 0)
+            index = find(x, y);
+
+        if (index < 0) {
+            modified();
+            append(x, y, state);
+            return true;
+        }
+
+        var previous = records.state(index);
+
+        if (previous == state)
+            return false;
+
+        modified();
+        records.setState(index, state);
+
+        if (previous == 0)
+            liveCount++;
+
+        return true;
+    }
+
+    @Override
+    public boolean remove(long x, long y) {
+        consolidate();
+
+        var index = find(x, y);
+
+        if (index < 0 || records.state(index) == 0)
+            return false;
+
+        modified();
+        kill(index);
+
+        if (sortedCount - liveCount > sortedCount >>> 1)
+            compact();
+
+        return true;
+    }
+
+    @Override
+    public boolean contains(long x, long y) {
+        return state(x, y) != 0;
+    }
+
+    @Override
+    public long state(long x, long y) {
+        consolidate();
+
+        var index = find(x, y);
+
+        return index < 0 ? 0 : records.state(index);
+    }
+
+    @Override
+    public void forEachCell(CellSink cellSink) {
+        consolidate();
+
+        for (var index = 0L; index < sortedCount; ) {
+            var state = records.state(index);
+
+            if (state == 0) {
+                index++;
+                continue;
+            }
+
+            var x = records.x(index);
+            var y = records.y(index);
+            var runEnd = index + 1;
+
+            while (runEnd < sortedCount && records.y(runEnd) == y && records.x(runEnd) == x + (runEnd - index) && records.state(runEnd) == state)
+                runEnd++;
+
+            if (runEnd - index == 1)
+                cellSink.accept(x, y, state);
+            else
+                cellSink.acceptRun(x, y, runEnd - index, state);
+
+            index = runEnd;
+        }
+    }
+
+    @Override
+    public Iterator<Cell> iterator() {
+        consolidate();
+
+        return new OffHeapCellIterator();
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(cellCount(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void clear() {
+        checkOpen();
+        modified();
+        sortedCount = 0;
+        count = 0;
+        liveCount = 0;
+    }
+
+    private void append(long x, long y, long state) {
+        if (count == sortedCount) {
+            var comparison = count == 0 ? 1 : compare(y, x, count - 1);
+
+            if (comparison == 0) {
+                if (records.state(count - 1) == 0)
+                    liveCount++;
+
+                records.setState(count - 1, state);
+                return;
+            }
+
+            if (comparison > 0) {
+                records.ensureCapacity(count + 1);
+                records.set(count++, y, x, state);
+                sortedCount = count;
+                liveCount++;
+                return;
+            }
+        }
+
+        records.ensureCapacity(count + 1);
+        records.set(count++, y, x, state);
+    }
+
+    private void consolidate() {
+        checkOpen();
+
+        if (count == sortedCount)
+            return;
+
+        sort(sortedCount, count);
+
+        var pendingEnd = deduplicate(sortedCount, count);
+        var pendingCount = pendingEnd - sortedCount;
+
+        if (sortedCount == 0 || compare(records.y(sortedCount), records.x(sortedCount), sortedCount - 1) > 0) {
+            sortedCount = pendingEnd;
+            count = pendingEnd;
+            liveCount += pendingCount;
+            return;
+        }
+
+        merge(pendingCount);
+    }
+
+    private long deduplicate(long from, long to) {
+        var write = from;
+
+        for (var index = from; index < to; index++) {
+            if (write > from && compare(records.y(index), records.x(index), write - 1) == 0) {
+                records.copy(index, write - 1);
+                continue;
+            }
+
+            if (index != write)
+                records.copy(index, write);
+
+            write++;
+        }
+
+        return write;
+    }
+
+    private void merge(long pendingCount) {
+        var pending = new Records(directory);
+
+        try {
+            pending.ensureCapacity(pendingCount);
+
+            for (var index = 0L; index < pendingCount; index++)
+                records.copyTo(sortedCount + index, pending, index);
+
+            var main = sortedCount - 1;
+            var other = pendingCount - 1;
+            var write = sortedCount + pendingCount - 1;
+            var added = pendingCount;
+
+            while (other >= 0) {
+                var comparison = main < 0 ? -1 : -compare(pending.y(other), pending.x(other), main);
+
+                if (comparison > 0) {
+                    records.copy(main--, write--);
+                    continue;
+                }
+
+                if (comparison == 0 && records.state(main--) != 0)
+                    added--;
+
+                records.set(write--, pending.y(other), pending.x(other), pending.state(other));
+                other--;
+            }
+
+            var gap = write - main;
+
+            if (gap > 0)
+                for (var index = write + 1; index < sortedCount + pendingCount; index++)
+                    records.copy(index, index - gap);
+
+            sortedCount += pendingCount - gap;
+            count = sortedCount;
+            liveCount += added;
+        } finally {
+            pending.close();
+        }
+    }
+
+    private void compact() {
+        var write = 0L;
+
+        for (var index = 0L; index < sortedCount; index++)
+            if (records.state(index) != 0) {
+                if (index != write)
+                    records.copy(index, write);
+
+                write++;
+            }
+
+        sortedCount = write;
+        count = write;
+    }
+
+    private void kill(long index) {
+        records.setState(index, 0);
+        liveCount--;
+    }
+
+    private long find(long x, long y) {
+        var low = 0L;
+        var high = sortedCount - 1;
+
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var comparison = compare(y, x, middle);
+
+            if (comparison == 0)
+                return middle;
+
+            if (comparison < 0)
+                high = middle - 1;
+            else
+                low = middle + 1;
+        }
+
+        return -1;
+    }
+
+    private int compare(long y, long x, long index) {
+        var comparison = Long.compare(y, records.y(index));
+
+        return comparison != 0 ? comparison : Long.compare(x, records.x(index));
+    }
+
+    private void sort(long from, long to) {
+        var length = to - from;
+
+        sortRuns(from, to);
+
+        if (length <= RUN_RECORDS)
+            return;
+
+        var buffer = new Records(directory);
+
+        try {
+            buffer.ensureCapacity(length);
+
+            var source = records;
+            var sourceOffset = from;
+            var target = buffer;
+            var targetOffset = 0L;
+
+            for (var width = (long) RUN_RECORDS; width < length; width <<= 1) {
+                for (var low = 0L; low < length; low += width << 1)
+                    mergeRuns(source, sourceOffset, target, targetOffset, low, Math.min(low + width, length), Math.min(low + (width << 1), length));
+
+                var merged = target;
+                var mergedOffset = targetOffset;
+
+                target = source;
+                targetOffset = sourceOffset;
+                source = merged;
+                sourceOffset = mergedOffset;
+            }
+
+            if (source != records)
+                for (var index = 0L; index < length; index++)
+                    source.copyTo(index, records, from + index);
+        } finally {
+            buffer.close();
+        }
+    }
+
+    private void sortRuns(long from, long to) {
+        var run = new long[(int) Math.min(to - from, RUN_RECORDS) * RECORD_LONGS];
+        var scratch = new long[run.length];
+
+        for (var start = from; start < to; start += RUN_RECORDS) {
+            var length = (int) Math.min(RUN_RECORDS, to - start);
+
+            for (var index = 0; index < length; index++) {
+                run[index * RECORD_LONGS] = records.y(start + index);
+                run[index * RECORD_LONGS + 1] = records.x(start + index);
+                run[index * RECORD_LONGS + 2] = records.state(start + index);
+            }
+
+            sortRun(run, scratch, length);
+
+            for (var index = 0; index < length; index++)
+                records.set(start + index, run[index * RECORD_LONGS], run[index * RECORD_LONGS + 1], run[index * RECORD_LONGS + 2]);
+        }
+    }
+
+    private static void sortRun(long[] run, long[] scratch, int length) {
+        for (var start = 0; start < length; start += INSERTION_SORT_THRESHOLD)
+            for (var index = start + 1; index < Math.min(length, start + INSERTION_SORT_THRESHOLD); index++)
+                for (var current = index; current > start && compare(run, current, current - 1) < 0; current--)
+                    swap(run, current, current - 1);
+
+        var source = run;
+        var target = scratch;
+
+        for (var width = INSERTION_SORT_THRESHOLD; width < length; width <<= 1) {
+            for (var low = 0; low < length; low += width << 1) {
+                var middle = Math.min(low + width, length);
+                var high = Math.min(low + (width << 1), length);
+                var left = low;
+                var right = middle;
+
+                for (var write = low; write < high; write++) {
+                    var next = right >= high || left < middle && compare(source, right, left) >= 0 ? left++ : right++;
+
+                    System.arraycopy(source, next * RECORD_LONGS, target, write * RECORD_LONGS, RECORD_LONGS);
+                }
+            }
+
+            var merged = target;
+
+            target = source;
+            source = merged;
+        }
+
+        if (source != run)
+            System.arraycopy(source, 0, run, 0, length * RECORD_LONGS);
+    }
+
+    private static int compare(long[] run, int first, int second) {
+        var comparison = Long.compare(run[first * RECORD_LONGS], run[second * RECORD_LONGS]);
+
+        return comparison != 0 ? comparison : Long.compare(run[first * RECORD_LONGS + 1], run[second * RECORD_LONGS + 1]);
+    }
+
+    private static void swap(long[] run, int first, int second) {
+        for (var offset = 0; offset < RECORD_LONGS; offset++) {
+            var value = run[first * RECORD_LONGS + offset];
+
+            run[first * RECORD_LONGS + offset] = run[second * RECORD_LONGS + offset];
+            run[second * RECORD_LONGS + offset] = value;
+        }
+    }
+
+    private static void mergeRuns(Records source, long sourceOffset, Records target, long targetOffset, long low, long middle, long high) {
+        var left = low;
+        var right = middle;
+
+        for (var write = low; write < high; write++)
+            if (right >= high || left < middle && compare(source, sourceOffset + right, sourceOffset + left) >= 0)
+                source.copyTo(sourceOffset + left++, target, targetOffset + write);
+            else
+                source.copyTo(sourceOffset + right++, target, targetOffset + write);
+    }
+
+    private static int compare(Records records, long first, long second) {
+        var comparison = Long.compare(records.y(first), records.y(second));
+
+        return comparison != 0 ? comparison : Long.compare(records.x(first), records.x(second));
+    }
+
+    private void checkOpen() {
+        if (records == null)
+            throw new IllegalStateException("Cell store is closed");
+    }
+
+    private void checkState(long state) {
+        checkOpen();
+
+        if (state == 0)
+            throw new IllegalArgumentException("Off-heap cell store cannot hold cells of state 0");
+    }
+
+    private final class OffHeapCellIterator implements Iterator<Cell> {
+
+        private long index;
+        private long lastIndex = -1;
+
+        @Override
+        public boolean hasNext() {
+            checkOpen();
+
+            while (index < sortedCount && records.state(index) == 0)
+                index++;
+
+            return index < sortedCount;
+        }
+
+        @Override
+        public Cell next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            lastIndex = index++;
+
+            return new Cell(new Coordinate(records.x(lastIndex), records.y(lastIndex)), records.state(lastIndex));
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0)
+                throw new IllegalStateException();
+
+            checkOpen();
+            modified();
+            kill(lastIndex);
+            lastIndex = -1;
+        }
+    }
+
+    private static final class Records {
+
+        private static final long RECORD_BYTES = RECORD_LONGS * Long.BYTES;
+
+        private final FileChannel channel;
+        private LongBuffer[] segments = new LongBuffer[0];
+        private long capacity;
+
+        private Records(Path directory) {
+            if (directory == null) {
+                channel = null;
+                return;
+            }
+
+            try {
+                channel = FileChannel.open(Files.createTempFile(directory, "cells-", ".tmp"),
+                        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        private void ensureCapacity(long records) {
+            while (capacity < records)
+                if (segments.length == 1 && capacity < SEGMENT_RECORDS) {
+                    segments[0] = allocate(0, Math.min(SEGMENT_RECORDS, Math.max(capacity << 1, records)), segments[0]);
+                    capacity = segments[0].capacity() / RECORD_LONGS;
+                } else {
+                    var index = segments.length;
+                    var length = index == 0 ? Math.min(SEGMENT_RECORDS, Math.max(INITIAL_RECORDS, records)) : SEGMENT_RECORDS;
+
+                    segments = Arrays.copyOf(segments, index + 1);
+                    segments[index] = allocate(index, length, null);
+                    capacity = ((long) index << SEGMENT_SHIFT) + length;
+                }
+        }
+
+        private LongBuffer allocate(int index, long records, LongBuffer previous) {
+            var bytes = records * RECORD_BYTES;
+
+            if (channel != null)
+                try {
+                    return channel.map(FileChannel.MapMode.READ_WRITE, ((long) index << SEGMENT_SHIFT) * RECORD_BYTES, bytes)
+                            .order(ByteOrder.nativeOrder())
+                            .asLongBuffer();
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+
+            var buffer = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder()).asLongBuffer();
+
+            if (previous != null) {
+                buffer.put(previous.clear());
+                buffer.clear();
+            }
+
+            return buffer;
+        }
+
+        private long y(long index) {
+            return segment(index).get(offset(index));
+        }
+
+        private long x(long index) {
+            return segment(index).get(offset(index) + 1);
+        }
+
+        private long state(long index) {
+            return segment(index).get(offset(index) + 2);
+        }
+
+        private void setState(long index, long state) {
+            segment(index).put(offset(index) + 2, state);
+        }
+
+        private void set(long index, long y, long x, long state) {
+            var segment = segment(index);
+            var offset = offset(index);
+
+            segment.put(offset, y);
+            segment.put(offset + 1, x);
+            segment.put(offset + 2, state);
+        }
+
+        private void copy(long from, long to) {
+            set(to, y(from), x(from), state(from));
+        }
+
+        private void copyTo(long index, Records target, long targetIndex) {
+            target.set(targetIndex, y(index), x(index), state(index));
+        }
+
+        private LongBuffer segment(long index) {
+            return segments[(int) (index >>> SEGMENT_SHIFT)];
+        }
+
+        private static int offset(long index) {
+            return (int) (index & (SEGMENT_RECORDS - 1)) * RECORD_LONGS;
+        }
+
+        private void close() {
+            segments = null;
+            capacity = 0;
+
+            if (channel == null)
+                return;
+
+            try {
+                channel.close();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+}
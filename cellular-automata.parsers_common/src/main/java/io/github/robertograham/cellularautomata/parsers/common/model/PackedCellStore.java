@@ -0,0 +1,409 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+import java.util.*;
+
+public class PackedCellStore extends CellStore {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.6F;
+
+    private long[] keys;
+    private byte[] byteStates;
+    private long[] longStates;
+    private int mask;
+    private int packedSize;
+    private int resizeThreshold;
+    private Map<Coordinate, Long> overflow;
+
+    public PackedCellStore() {
+        this(16);
+    }
+
+    public PackedCellStore(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    @Override
+    public boolean add(long x, long y, long state) {
+        if (!isPackable(x, y)) {
+            var added = !Objects.equals(overflow().put(new Coordinate(x, y), state), state);
+
+            if (added)
+                modified();
+
+            return added;
+        }
+
+        var key = pack(x, y);
+        var slot = hash(key) & mask;
+
+        for (var current = keys[slot]; current != EMPTY; current = keys[slot]) {
+            if (current == key) {
+                if (state(slot) == state)
+                    return false;
+
+                modified();
+                setState(slot, state);
+                return true;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        if (keys.length == MAXIMUM_CAPACITY && packedSize + 1 >= resizeThreshold)
+            throw new IllegalStateException("Cell store is full");
+
+        modified();
+        keys[slot] = key;
+        setState(slot, state);
+
+        if (++packedSize >= resizeThreshold)
+            rehash(keys.length << 1);
+
+        return true;
+    }
+
+    @Override
+    public boolean remove(long x, long y) {
+        if (!isPackable(x, y)) {
+            var removed = overflow != null && overflow.remove(new Coordinate(x, y)) != null;
+
+            if (removed)
+                modified();
+
+            return removed;
+        }
+
+        var slot = slotOf(pack(x, y));
+
+        if (slot < 0)
+            return false;
+
+        modified();
+        packedSize--;
+        shiftKeys(slot);
+
+        return true;
+    }
+
+    @Override
+    public boolean contains(long x, long y) {
+        if (!isPackable(x, y))
+            return overflow != null && overflow.containsKey(new Coordinate(x, y));
+
+        return slotOf(pack(x, y)) >= 0;
+    }
+
+    @Override
+    public long state(long x, long y) {
+        if (!isPackable(x, y))
+            return overflow == null ? 0 : overflow.getOrDefault(new Coordinate(x, y), 0L);
+
+        var slot = slotOf(pack(x, y));
+
+        return slot < 0 ? 0 : state(slot);
+    }
+
+    @Override
+    public void forEachCell(CellSink cellSink) {
+        forEachCellInSlots(0, keys.length, cellSink);
+        forEachOverflowCell(cellSink);
+    }
+
+    int slots() {
+        return keys.length;
+    }
+
+    void forEachCellInSlots(int from, int to, CellSink cellSink) {
+        for (var slot = from; slot < to; slot++) {
+            var key = keys[slot];
+
+            if (key != EMPTY)
+                cellSink.accept(unpackX(key), unpackY(key), state(slot));
+        }
+    }
+
+    void forEachOverflowCell(CellSink cellSink) {
+        if (overflow != null)
+            overflow.forEach((coordinate, state) -> cellSink.accept(coordinate.x(), coordinate.y(), state));
+    }
+
+    @Override
+    public Iterator<Cell> iterator() {
+        return new PackedCellIterator();
+    }
+
+    @Override
+    public int size() {
+        return packedSize + (overflow == null ? 0 : overflow.size());
+    }
+
+    @Override
+    public void clear() {
+        modified();
+        Arrays.fill(keys, EMPTY);
+        byteStates = null;
+        longStates = null;
+        packedSize = 0;
+        overflow = null;
+    }
+
+    public static long bytesFor(int size) {
+        var bytes = (long) capacityFor(size) * Long.BYTES;
+
+        return size > 0 ? bytes : 0;
+    }
+
+    private static boolean isPackable(long x, long y) {
+        return x == (int) x && y == (int) y && pack(x, y) != EMPTY;
+    }
+
+    private static long pack(long x, long y) {
+        return x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+    private static long unpackX(long key) {
+        return key >> 32;
+    }
+
+    private static long unpackY(long key) {
+        return (int) key;
+    }
+
+    private static int hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+
+        return (int) (key ^ (key >>> 33));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        var capacity = 16;
+
+        while (capacity < MAXIMUM_CAPACITY && capacity * LOAD_FACTOR <= expectedSize)
+            capacity <<= 1;
+
+        return capacity;
+    }
+
+    private Map<Coordinate, Long> overflow() {
+        if (overflow == null)
+            overflow = new HashMap<>();
+
+        return overflow;
+    }
+
+    private int slotOf(long key) {
+        var slot = hash(key) & mask;
+
+        for (var current = keys[slot]; current != EMPTY; current = keys[slot]) {
+            if (current == key)
+                return slot;
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private static boolean isByteState(long state) {
+        return state >= 0 && state <= 0xFF;
+    }
+
+    private long state(int slot) {
+        if (byteStates != null)
+            return byteStates[slot] & 0xFF;
+
+        return longStates == null ? 1 : longStates[slot];
+    }
+
+    private void setState(int slot, long state) {
+        if (byteStates == null && longStates == null) {
+            if (state == 1)
+                return;
+
+            if (isByteState(state)) {
+                byteStates = new byte[keys.length];
+                Arrays.fill(byteStates, (byte) 1);
+            } else {
+                longStates = new long[keys.length];
+                Arrays.fill(longStates, 1);
+            }
+        } else if (byteStates != null && !isByteState(state)) {
+            longStates = new long[keys.length];
+
+            for (var index = 0; index < byteStates.length; index++)
+                longStates[index] = byteStates[index] & 0xFF;
+
+            byteStates = null;
+        }
+
+        if (byteStates != null)
+            byteStates[slot] = (byte) state;
+        else
+            longStates[slot] = state;
+    }
+
+    private void moveState(int from, int to) {
+        if (byteStates != null)
+            byteStates[to] = byteStates[from];
+        else if (longStates != null)
+            longStates[to] = longStates[from];
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeThreshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        var oldKeys = keys;
+        var oldByteStates = byteStates;
+        var oldLongStates = longStates;
+
+        allocate(capacity);
+        byteStates = oldByteStates == null ? null : new byte[capacity];
+        longStates = oldLongStates == null ? null : new long[capacity];
+
+        for (var oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            var key = oldKeys[oldSlot];
+
+            if (key == EMPTY)
+                continue;
+
+            var slot = hash(key) & mask;
+
+            while (keys[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+
+            keys[slot] = key;
+
+            if (oldByteStates != null)
+                byteStates[slot] = oldByteStates[oldSlot];
+            else if (oldLongStates != null)
+                longStates[slot] = oldLongStates[oldSlot];
+        }
+    }
+
+    private void shiftKeys(int slot) {
+        shiftKeys(slot, null);
+    }
+
+    private void shiftKeys(int slot, PackedCellIterator iterator) {
+        while (true) {
+            var last = slot;
+            long key;
+
+            slot = (last + 1) & mask;
+
+            while (true) {
+                key = keys[slot];
+
+                if (key == EMPTY) {
+                    keys[last] = EMPTY;
+                    return;
+                }
+
+                var ideal = hash(key) & mask;
+
+                if (last <= slot ? last >= ideal || ideal > slot : last >= ideal && ideal > slot)
+                    break;
+
+                slot = (slot + 1) & mask;
+            }
+
+            if (iterator != null && slot < last)
+                iterator.wrapped(key);
+
+            keys[last] = key;
+            moveState(slot, last);
+        }
+    }
+
+    private final class PackedCellIterator implements Iterator<Cell> {
+
+        private int slot = keys.length;
+        private int remaining = packedSize;
+        private int last = -1;
+        private long lastWrappedKey;
+        private boolean lastFromOverflow;
+        private List<Long> wrappedKeys;
+        private Iterator<Map.Entry<Coordinate, Long>> overflowIterator;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0 || overflowIterator().hasNext();
+        }
+
+        @Override
+        public Cell next() {
+            if (remaining == 0) {
+                var entry = overflowIterator().next();
+
+                last = -1;
+                lastFromOverflow = true;
+
+                return new Cell(entry.getKey(), entry.getValue());
+            }
+
+            remaining--;
+
+            while (--slot >= 0) {
+                var key = keys[slot];
+
+                if (key != EMPTY) {
+                    last = slot;
+                    return new Cell(new Coordinate(unpackX(key), unpackY(key)), state(slot));
+                }
+            }
+
+            last = Integer.MIN_VALUE;
+            lastWrappedKey = wrappedKeys.get(-slot - 1);
+
+            var x = unpackX(lastWrappedKey);
+            var y = unpackY(lastWrappedKey);
+
+            return new Cell(new Coordinate(x, y), state(x, y));
+        }
+
+        @Override
+        public void remove() {
+            if (lastFromOverflow) {
+                modified();
+                overflowIterator.remove();
+                lastFromOverflow = false;
+                return;
+            }
+
+            if (last == -1)
+                throw new IllegalStateException();
+
+            if (last == Integer.MIN_VALUE)
+                PackedCellStore.this.remove(unpackX(lastWrappedKey), unpackY(lastWrappedKey));
+            else {
+                modified();
+                packedSize--;
+                shiftKeys(last, this);
+            }
+
+            last = -1;
+        }
+
+        private void wrapped(long key) {
+            if (wrappedKeys == null)
+                wrappedKeys = new ArrayList<>(2);
+
+            wrappedKeys.add(key);
+        }
+
+        private Iterator<Map.Entry<Coordinate, Long>> overflowIterator() {
+            if (overflowIterator == null)
+                overflowIterator = overflow == null ? Collections.emptyIterator() : overflow.entrySet().iterator();
+
+            return overflowIterator;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+public final class PatternFingerprint implements Comparable<PatternFingerprint> {
+
+    private static final int TRANSFORMS = 8;
+    private static final long NARROW_LIMIT = 1L << 31;
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private final long high;
+    private final long low;
+
+    public PatternFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static PatternFingerprint of(CellularAutomataPattern pattern) {
+        return pattern.fingerprint();
+    }
+
+    public static PatternFingerprint of(CellStore cellStore) {
+        var size = cellStore.size();
+        var xs = new long[size];
+        var ys = new long[size];
+        var states = new long[size];
+        var count = new int[1];
+        var bounds = new long[]{Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+        var multiState = new boolean[1];
+
+        cellStore.forEachCell((x, y, state) -> {
+            var index = count[0]++;
+
+            xs[index] = x;
+            ys[index] = y;
+            states[index] = state;
+            multiState[0] |= state != 1;
+            bounds[0] = Math.min(bounds[0], x);
+            bounds[1] = Math.min(bounds[1], y);
+            bounds[2] = Math.max(bounds[2], x);
+            bounds[3] = Math.max(bounds[3], y);
+        });
+
+        var hasher = new Hasher();
+
+        hasher.add(size);
+
+        if (size == 0)
+            return hasher.finish();
+
+        for (var index = 0; index < size; index++) {
+            xs[index] -= bounds[0];
+            ys[index] -= bounds[1];
+        }
+
+        var width = bounds[2] - bounds[0] + 1;
+        var height = bounds[3] - bounds[1] + 1;
+        var cellStates = multiState[0] ? states : null;
+
+        if (width > 0 && height > 0 && width <= NARROW_LIMIT && height <= NARROW_LIMIT)
+            hashNarrow(xs, ys, cellStates, width, height, hasher);
+        else
+            hashWide(xs, ys, cellStates, width, height, hasher);
+
+        return hasher.finish();
+    }
+
+    public long high() {
+        return high;
+    }
+
+    public long low() {
+        return low;
+    }
+
+    private static void hashNarrow(long[] xs, long[] ys, long[] states, long width, long height, Hasher hasher) {
+        var size = xs.length;
+        var best = (long[]) null;
+        var bestStates = (long[]) null;
+        var keys = new long[size];
+        var order = states == null ? null : new Integer[size];
+        var candidateStates = states == null ? null : new long[size];
+
+        for (var transform = 0; transform < TRANSFORMS; transform++) {
+            for (var index = 0; index < size; index++)
+                keys[index] = transformedY(transform, xs[index], ys[index], width, height) << 32 |
+                        transformedX(transform, xs[index], ys[index], width, height);
+
+            if (order == null)
+                Arrays.sort(keys);
+            else {
+                for (var index = 0; index < size; index++)
+                    order[index] = index;
+
+                var unsorted = keys.clone();
+
+                Arrays.sort(order, Comparator.comparingLong(index -> unsorted[index]));
+
+                for (var index = 0; index < size; index++) {
+                    keys[index] = unsorted[order[index]];
+                    candidateStates[index] = states[order[index]];
+                }
+            }
+
+            if (best == null || compare(keys, candidateStates, best, bestStates) < 0) {
+                var previous = best;
+                var previousStates = bestStates;
+
+                best = keys;
+                bestStates = candidateStates;
+                keys = previous == null ? new long[size] : previous;
+                candidateStates = states == null ? null : previousStates == null ? new long[size] : previousStates;
+            }
+        }
+
+        for (var index = 0; index < size; index++) {
+            hasher.add(best[index]);
+
+            if (bestStates != null)
+                hasher.add(bestStates[index]);
+        }
+    }
+
+    private static void hashWide(long[] xs, long[] ys, long[] states, long width, long height, Hasher hasher) {
+        var size = xs.length;
+        var bestXs = (long[]) null;
+        var bestYs = (long[]) null;
+        var bestStates = (long[]) null;
+
+        for (var transform = 0; transform < TRANSFORMS; transform++) {
+            var transformedXs = new long[size];
+            var transformedYs = new long[size];
+            var order = new Integer[size];
+
+            for (var index = 0; index < size; index++) {
+                transformedXs[index] = transformedX(transform, xs[index], ys[index], width, height);
+                transformedYs[index] = transformedY(transform, xs[index], ys[index], width, height);
+                order[index] = index;
+            }
+
+            Arrays.sort(order, Comparator.<Integer>comparingLong(index -> transformedYs[index] + Long.MIN_VALUE)
+                    .thenComparingLong(index -> transformedXs[index] + Long.MIN_VALUE));
+
+            var sortedXs = new long[size];
+            var sortedYs = new long[size];
+            var sortedStates = states == null ? null : new long[size];
+
+            for (var index = 0; index < size; index++) {
+                sortedXs[index] = transformedXs[order[index]];
+                sortedYs[index] = transformedYs[order[index]];
+
+                if (sortedStates != null)
+                    sortedStates[index] = states[order[index]];
+            }
+
+            if (bestXs == null || compareWide(sortedXs, sortedYs, sortedStates, bestXs, bestYs, bestStates) < 0) {
+                bestXs = sortedXs;
+                bestYs = sortedYs;
+                bestStates = sortedStates;
+            }
+        }
+
+        for (var index = 0; index < size; index++) {
+            hasher.add(bestYs[index]);
+            hasher.add(bestXs[index]);
+
+            if (bestStates != null)
+                hasher.add(bestStates[index]);
+        }
+    }
+
+    private static long transformedX(int transform, long x, long y, long width, long height) {
+        switch (transform) {
+            case 0:
+            case 2:
+                return x;
+            case 1:
+            case 3:
+                return width - 1 - x;
+            case 4:
+            case 6:
+                return y;
+            default:
+                return height - 1 - y;
+        }
+    }
+
+    private static long transformedY(int transform, long x, long y, long width, long height) {
+        switch (transform) {
+            case 0:
+            case 1:
+                return y;
+            case 2:
+            case 3:
+                return height - 1 - y;
+            case 4:
+            case 5:
+                return x;
+            default:
+                return width - 1 - x;
+        }
+    }
+
+    private static int compare(long[] keys, long[] states, long[] otherKeys, long[] otherStates) {
+        for (var index = 0; index < keys.length; index++) {
+            if (keys[index] != otherKeys[index])
+                return Long.compare(keys[index], otherKeys[index]);
+
+            if (states != null && states[index] != otherStates[index])
+                return Long.compare(states[index], otherStates[index]);
+        }
+
+        return 0;
+    }
+
+    private static int compareWide(long[] xs, long[] ys, long[] states, long[] otherXs, long[] otherYs, long[] otherStates) {
+        for (var index = 0; index < xs.length; index++) {
+            if (ys[index] != otherYs[index])
+                return Long.compareUnsigned(ys[index], otherYs[index]);
+
+            if (xs[index] != otherXs[index])
+                return Long.compareUnsigned(xs[index], otherXs[index]);
+
+            if (states != null && states[index] != otherStates[index])
+                return Long.compare(states[index], otherStates[index]);
+        }
+
+        return 0;
+    }
+
+    @Override
+    public int compareTo(PatternFingerprint patternFingerprint) {
+        var comparison = Long.compareUnsigned(high, patternFingerprint.high);
+
+        return comparison != 0 ? comparison : Long.compareUnsigned(low, patternFingerprint.low);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+
+        if (!(object instanceof PatternFingerprint))
+            return false;
+
+        var patternFingerprint = (PatternFingerprint) object;
+
+        return high == patternFingerprint.high && low == patternFingerprint.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ low >>> 32);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    private static final class Hasher {
+
+        private long h1;
+        private long h2;
+        private long pending;
+        private boolean hasPending;
+        private long length;
+
+        private void add(long value) {
+            length += Long.BYTES;
+
+            if (!hasPending) {
+                pending = value;
+                hasPending = true;
+                return;
+            }
+
+            mix(pending, value);
+            hasPending = false;
+        }
+
+        private void mix(long k1, long k2) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52DCE729;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495AB5;
+        }
+
+        private PatternFingerprint finish() {
+            if (hasPending) {
+                var k1 = pending * C1;
+
+                k1 = Long.rotateLeft(k1, 31);
+                k1 *= C2;
+                h1 ^= k1;
+            }
+
+            h1 ^= length;
+            h2 ^= length;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix(h1);
+            h2 = fmix(h2);
+            h1 += h2;
+            h2 += h1;
+
+            return new PatternFingerprint(h1, h2);
+        }
+
+        private static long fmix(long value) {
+            value ^= value >>> 33;
+            value *= 0xFF51AFD7ED558CCDL;
+            value ^= value >>> 33;
+            value *= 0xC4CEB53A85CE6A99L;
+            value ^= value >>> 33;
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+public final class PatternFingerprintIndex<T> {
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.6F;
+
+    private long[] highs;
+    private long[] lows;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public PatternFingerprintIndex() {
+        this(16);
+    }
+
+    public PatternFingerprintIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public T putIfAbsent(CellularAutomataPattern pattern, T value) {
+        return putIfAbsent(pattern.fingerprint(), value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T putIfAbsent(PatternFingerprint fingerprint, T value) {
+        Objects.requireNonNull(value, "value");
+
+        var slot = slotOf(fingerprint.high(), fingerprint.low());
+
+        if (slot >= 0)
+            return (T) values[slot];
+
+        if (size + 1 >= resizeThreshold) {
+            if (highs.length == MAXIMUM_CAPACITY)
+                throw new IllegalStateException("Fingerprint index is full");
+
+            rehash(highs.length << 1);
+            slot = slotOf(fingerprint.high(), fingerprint.low());
+        }
+
+        slot = -slot - 1;
+        highs[slot] = fingerprint.high();
+        lows[slot] = fingerprint.low();
+        values[slot] = value;
+        size++;
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(PatternFingerprint fingerprint) {
+        var slot = slotOf(fingerprint.high(), fingerprint.low());
+
+        return slot < 0 ? null : (T) values[slot];
+    }
+
+    public boolean contains(PatternFingerprint fingerprint) {
+        return slotOf(fingerprint.high(), fingerprint.low()) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<PatternFingerprint, T> consumer) {
+        for (var slot = 0; slot < values.length; slot++)
+            if (values[slot] != null)
+                consumer.accept(new PatternFingerprint(highs[slot], lows[slot]), (T) values[slot]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int slotOf(long high, long low) {
+        var slot = (int) (low ^ high >>> 32) & mask;
+
+        while (values[slot] != null) {
+            if (highs[slot] == high && lows[slot] == low)
+                return slot;
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -slot - 1;
+    }
+
+    private void rehash(int capacity) {
+        var oldHighs = highs;
+        var oldLows = lows;
+        var oldValues = values;
+
+        allocate(capacity);
+
+        for (var slot = 0; slot < oldValues.length; slot++)
+            if (oldValues[slot] != null) {
+                var newSlot = -slotOf(oldHighs[slot], oldLows[slot]) - 1;
+
+                highs[newSlot] = oldHighs[slot];
+                lows[newSlot] = oldLows[slot];
+                values[newSlot] = oldValues[slot];
+            }
+    }
+
+    private void allocate(int capacity) {
+        highs = new long[capacity];
+        lows = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) Math.min(MAXIMUM_CAPACITY, capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        var capacity = 16;
+
+        while (capacity < MAXIMUM_CAPACITY && capacity * LOAD_FACTOR <= expectedSize)
+            capacity <<= 1;
+
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return "PatternFingerprintIndex{" +
+                "size=" + size +
+                '}';
+    }
+}
@@ -0,0 +1,360 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class PatternTransformer {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+    private long parallelThreshold = 1 << 16;
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public long getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(long parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public <T extends CellularAutomataPattern> T transform(T pattern, DihedralTransform transform, long dx, long dy) {
+        var origin = pattern.origin();
+        var width = dimension(pattern, true);
+        var height = dimension(pattern, false);
+        var lastX = origin.x() + Math.max(width, 1) - 1;
+        var lastY = origin.y() + Math.max(height, 1) - 1;
+
+        pattern.replaceCellStore(transform(pattern.cellStore(), transform, dx, dy));
+        pattern.setOrigin(new Coordinate(
+                Math.min(transform.x(origin.x(), origin.y()), transform.x(lastX, lastY)) + dx,
+                Math.min(transform.y(origin.x(), origin.y()), transform.y(lastX, lastY)) + dy));
+
+        if (transform.swapsAxes() && width >= 0 && height >= 0)
+            setDimensions(pattern, height, width);
+
+        return pattern;
+    }
+
+    public <T extends CellularAutomataPattern> T reorient(T pattern, DihedralTransform transform) {
+        var origin = pattern.origin();
+        var lastX = origin.x() + Math.max(dimension(pattern, true), 1) - 1;
+        var lastY = origin.y() + Math.max(dimension(pattern, false), 1) - 1;
+        var transformedX = Math.min(transform.x(origin.x(), origin.y()), transform.x(lastX, lastY));
+        var transformedY = Math.min(transform.y(origin.x(), origin.y()), transform.y(lastX, lastY));
+
+        return transform(pattern, transform, origin.x() - transformedX, origin.y() - transformedY);
+    }
+
+    public <T extends CellularAutomataPattern> T translate(T pattern, long dx, long dy) {
+        return transform(pattern, DihedralTransform.IDENTITY, dx, dy);
+    }
+
+    public <T extends CellularAutomataPattern> T normalize(T pattern) {
+        return translate(pattern, -pattern.origin().x(), -pattern.origin().y());
+    }
+
+    public <T extends CellularAutomataPattern> T crop(T pattern, long minX, long minY, long maxX, long maxY) {
+        checkRectangle(minX, minY, maxX, maxY);
+
+        var origin = pattern.origin();
+        var width = dimension(pattern, true);
+        var height = dimension(pattern, false);
+
+        pattern.replaceCellStore(crop(pattern.cellStore(), minX, minY, maxX, maxY));
+
+        if (width < 0 || height < 0)
+            return pattern;
+
+        var originX = Math.max(origin.x(), minX);
+        var originY = Math.max(origin.y(), minY);
+
+        pattern.setOrigin(new Coordinate(originX, originY));
+        setDimensions(pattern,
+                Math.max(0, Math.min(origin.x() + width - 1, maxX) - originX + 1),
+                Math.max(0, Math.min(origin.y() + height - 1, maxY) - originY + 1));
+
+        return pattern;
+    }
+
+    public CellStore transform(CellStore cellStore, DihedralTransform transform, long dx, long dy) {
+        if (cellStore instanceof DenseCellStore) {
+            var denseCellStore = (DenseCellStore) cellStore;
+            var width = transform.swapsAxes() ? denseCellStore.height() : denseCellStore.width();
+            var height = transform.swapsAxes() ? denseCellStore.width() : denseCellStore.height();
+
+            if (DenseCellStore.fits(width, height))
+                return transformDense(denseCellStore, transform, dx, dy);
+        }
+
+        return map(cellStore, (x, y, state, cellSink) -> cellSink.accept(transform.x(x, y) + dx, transform.y(x, y) + dy, state));
+    }
+
+    public CellStore crop(CellStore cellStore, long minX, long minY, long maxX, long maxY) {
+        checkRectangle(minX, minY, maxX, maxY);
+
+        if (cellStore instanceof DenseCellStore)
+            return cropDense((DenseCellStore) cellStore, minX, minY, maxX, maxY);
+
+        return map(cellStore, (x, y, state, cellSink) -> {
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                cellSink.accept(x, y, state);
+        });
+    }
+
+    private CellStore map(CellStore cellStore, CellMapper cellMapper) {
+        var target = cellStore instanceof DenseCellStore ? new PackedCellStore(cellStore.size()) : cellStore.newCellStore(cellStore.size());
+
+        if (!(cellStore instanceof PackedCellStore) || cellStore.size() < parallelThreshold) {
+            cellStore.forEachCell((x, y, state) -> cellMapper.map(x, y, state, target));
+            return target;
+        }
+
+        var packedCellStore = (PackedCellStore) cellStore;
+        var slots = packedCellStore.slots();
+        var chunkSize = Math.max(1, slots / Math.max(1, forkJoinPool.getParallelism() * CHUNKS_PER_THREAD));
+        var tasks = new ArrayList<ForkJoinTask<CellBuffer>>();
+
+        for (var from = 0; from < slots; from += chunkSize) {
+            var chunkFrom = from;
+            var chunkTo = Math.min(slots, from + chunkSize);
+
+            tasks.add(forkJoinPool.submit(() -> {
+                var cellBuffer = new CellBuffer();
+
+                packedCellStore.forEachCellInSlots(chunkFrom, chunkTo, (x, y, state) -> cellMapper.map(x, y, state, cellBuffer));
+
+                return cellBuffer;
+            }));
+        }
+
+        try {
+            for (var index = 0; index < tasks.size(); index++) {
+                tasks.get(index).join().replay(target);
+                tasks.set(index, null);
+            }
+        } finally {
+            cancelAll(tasks);
+        }
+
+        packedCellStore.forEachOverflowCell((x, y, state) -> cellMapper.map(x, y, state, target));
+
+        return target;
+    }
+
+    private DenseCellStore transformDense(DenseCellStore source, DihedralTransform transform, long dx, long dy) {
+        var width = source.width();
+        var height = source.height();
+        var targetWidth = transform.swapsAxes() ? height : width;
+        var targetHeight = transform.swapsAxes() ? width : height;
+        var originX = source.originX();
+        var originY = source.originY();
+        var lastX = originX + Math.max(width, 1) - 1;
+        var lastY = originY + Math.max(height, 1) - 1;
+        var targetOriginX = Math.min(transform.x(originX, originY), transform.x(lastX, lastY)) + dx;
+        var targetOriginY = Math.min(transform.y(originX, originY), transform.y(lastX, lastY)) + dy;
+
+        if (source.isEmpty())
+            return new DenseCellStore(targetOriginX, targetOriginY, targetWidth, targetHeight);
+
+        var sourceWords = source.words();
+        var sourceWordsPerRow = source.wordsPerRow();
+        var targetWordsPerRow = (int) ((targetWidth + 63) >>> 6);
+        var targetWords = new long[(int) (targetWordsPerRow * targetHeight)];
+        var flipRows = transform.y(0, 1) < 0 || transform.y(1, 0) < 0;
+        var flipColumns = transform.x(1, 0) < 0 || transform.x(0, 1) < 0;
+
+        if (!transform.swapsAxes())
+            forEachBand(height, source.size(), (from, to) -> {
+                for (var row = from; row < to; row++) {
+                    var sourceStart = (int) (row * sourceWordsPerRow);
+                    var targetStart = (int) ((flipRows ? height - 1 - row : row) * targetWordsPerRow);
+
+                    if (!flipColumns) {
+                        System.arraycopy(sourceWords, sourceStart, targetWords, targetStart, sourceWordsPerRow);
+                        continue;
+                    }
+
+                    for (var wordIndex = 0; wordIndex < sourceWordsPerRow; wordIndex++) {
+                        var word = sourceWords[sourceStart + wordIndex];
+
+                        if (word != 0)
+                            orBits(targetWords, targetStart, targetWordsPerRow, width - ((long) wordIndex + 1 << 6), Long.reverse(word));
+                    }
+                }
+            });
+        else
+            forEachBand(targetWordsPerRow, source.size(), (from, to) -> {
+                for (var targetWordIndex = from; targetWordIndex < to; targetWordIndex++) {
+                    var firstColumn = targetWordIndex << 6;
+                    var lastColumn = Math.min(targetWidth, firstColumn + 64);
+
+                    for (var column = firstColumn; column < lastColumn; column++) {
+                        var row = flipColumns ? height - 1 - column : column;
+                        var sourceStart = (int) (row * sourceWordsPerRow);
+                        var bit = 1L << (column & 63);
+
+                        for (var wordIndex = 0; wordIndex < sourceWordsPerRow; wordIndex++)
+                            for (var word = sourceWords[sourceStart + wordIndex]; word != 0; word &= word - 1) {
+                                var sourceColumn = ((long) wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                                var targetRow = flipRows ? width - 1 - sourceColumn : sourceColumn;
+
+                                targetWords[(int) (targetRow * targetWordsPerRow + targetWordIndex)] |= bit;
+                            }
+                    }
+                }
+            });
+
+        return new DenseCellStore(targetOriginX, targetOriginY, targetWidth, targetHeight, targetWords);
+    }
+
+    private DenseCellStore cropDense(DenseCellStore source, long minX, long minY, long maxX, long maxY) {
+        var originX = Math.max(minX, source.originX());
+        var originY = Math.max(minY, source.originY());
+        var lastX = Math.min(maxX, source.originX() + source.width() - 1);
+        var lastY = Math.min(maxY, source.originY() + source.height() - 1);
+
+        if (lastX < originX || lastY < originY)
+            return new DenseCellStore(originX, originY, 0, 0);
+
+        var width = lastX - originX + 1;
+        var height = lastY - originY + 1;
+        var sourceWords = source.words();
+        var sourceWordsPerRow = source.wordsPerRow();
+        var targetWordsPerRow = (int) ((width + 63) >>> 6);
+        var targetWords = new long[(int) (targetWordsPerRow * height)];
+        var firstColumn = originX - source.originX();
+        var lastColumn = lastX - source.originX();
+        var rowOffset = originY - source.originY();
+
+        forEachBand(height, source.size(), (from, to) -> {
+            for (var row = from; row < to; row++) {
+                var sourceStart = (int) ((row + rowOffset) * sourceWordsPerRow);
+                var targetStart = (int) (row * targetWordsPerRow);
+
+                for (var wordIndex = (int) (firstColumn >>> 6); wordIndex <= (int) (lastColumn >>> 6); wordIndex++) {
+                    var wordStart = (long) wordIndex << 6;
+                    var low = Math.max(firstColumn, wordStart) - wordStart;
+                    var high = Math.min(lastColumn, wordStart + 63) - wordStart;
+                    var word = sourceWords[sourceStart + wordIndex] & -1L >>> (63 - high) & -1L << low;
+
+                    if (word != 0)
+                        orBits(targetWords, targetStart, targetWordsPerRow, wordStart - firstColumn, word);
+                }
+            }
+        });
+
+        return new DenseCellStore(originX, originY, width, height, targetWords);
+    }
+
+    private void forEachBand(long count, long cells, BandTask bandTask) {
+        if (cells < parallelThreshold || count < 2) {
+            bandTask.run(0, count);
+            return;
+        }
+
+        var bandSize = Math.max(1, count / Math.max(1, forkJoinPool.getParallelism() * CHUNKS_PER_THREAD));
+        var tasks = new ArrayList<ForkJoinTask<?>>();
+
+        for (var from = 0L; from < count; from += bandSize) {
+            var bandFrom = from;
+            var bandTo = Math.min(count, from + bandSize);
+
+            tasks.add(forkJoinPool.submit(() -> bandTask.run(bandFrom, bandTo)));
+        }
+
+        try {
+            for (var task : tasks)
+                task.join();
+        } finally {
+            cancelAll(tasks);
+        }
+    }
+
+    private static void orBits(long[] words, int rowStart, int wordsPerRow, long position, long bits) {
+        if (position < 0) {
+            words[rowStart] |= bits >>> -position;
+            return;
+        }
+
+        var wordIndex = (int) (position >>> 6);
+        var shift = (int) (position & 63);
+
+        words[rowStart + wordIndex] |= bits << shift;
+
+        if (shift != 0 && wordIndex + 1 < wordsPerRow)
+            words[rowStart + wordIndex + 1] |= bits >>> (64 - shift);
+    }
+
+    private static long dimension(CellularAutomataPattern pattern, boolean width) {
+        if (!(pattern instanceof DimensionedPattern))
+            return -1;
+
+        var dimensionedPattern = (DimensionedPattern) pattern;
+        var dimension = width ? dimensionedPattern.getWidth() : dimensionedPattern.getHeight();
+
+        return dimension == null ? -1 : dimension;
+    }
+
+    private static void setDimensions(CellularAutomataPattern pattern, long width, long height) {
+        var dimensionedPattern = (DimensionedPattern) pattern;
+
+        dimensionedPattern.setWidth(width);
+        dimensionedPattern.setHeight(height);
+    }
+
+    private static void checkRectangle(long minX, long minY, long maxX, long maxY) {
+        if (minX > maxX || minY > maxY)
+            throw new IllegalArgumentException("Crop rectangle (" + minX + ", " + minY + ")..(" + maxX + ", " + maxY + ") is empty");
+    }
+
+    private static void cancelAll(List<? extends ForkJoinTask<?>> tasks) {
+        for (var task : tasks)
+            if (task != null)
+                task.cancel(false);
+    }
+
+    @FunctionalInterface
+    private interface CellMapper {
+
+        void map(long x, long y, long state, CellSink cellSink);
+    }
+
+    @FunctionalInterface
+    private interface BandTask {
+
+        void run(long from, long to);
+    }
+
+    private static final class CellBuffer implements CellSink {
+
+        private long[] cells = new long[96];
+        private int size;
+
+        @Override
+        public void accept(long x, long y, long state) {
+            if (size + 3 > cells.length)
+                cells = Arrays.copyOf(cells, cells.length << 1);
+
+            cells[size++] = x;
+            cells[size++] = y;
+            cells[size++] = state;
+        }
+
+        private void replay(CellSink cellSink) {
+            for (var index = 0; index < size; index += 3)
+                cellSink.accept(cells[index], cells[index + 1], cells[index + 2]);
+        }
+    }
+}
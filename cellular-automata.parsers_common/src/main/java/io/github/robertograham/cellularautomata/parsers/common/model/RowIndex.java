@@ -0,0 +1,398 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public final class RowIndex {
+
+    private static final RowIndex EMPTY = new RowIndex(new long[0], new int[]{0}, new long[0], null, 0, -1);
+
+    private final long[] rowYs;
+    private final int[] rowStarts;
+    private final long[] xs;
+    private final long[] states;
+    private final long minX;
+    private final long maxX;
+
+    private RowIndex(long[] rowYs, int[] rowStarts, long[] xs, long[] states, long minX, long maxX) {
+        this.rowYs = rowYs;
+        this.rowStarts = rowStarts;
+        this.xs = xs;
+        this.states = states;
+        this.minX = minX;
+        this.maxX = maxX;
+    }
+
+    public static RowIndex of(CellularAutomataPattern pattern) {
+        return of(pattern.cellStore());
+    }
+
+    public static RowIndex of(CellStore cellStore) {
+        return of(RowSortedCells.of(cellStore));
+    }
+
+    public static RowIndex of(RowSortedCells cells) {
+        var size = cells.size();
+
+        if (size == 0)
+            return EMPTY;
+
+        var xs = new long[size];
+        var states = (long[]) null;
+        var rowYs = new long[16];
+        var rowStarts = new int[17];
+        var rowCount = 0;
+        var minX = Long.MAX_VALUE;
+        var maxX = Long.MIN_VALUE;
+
+        for (var index = 0; index < size; index++) {
+            var x = cells.x(index);
+            var y = cells.y(index);
+            var state = cells.state(index);
+
+            if (rowCount == 0 || rowYs[rowCount - 1] != y) {
+                if (rowCount == rowYs.length) {
+                    rowYs = Arrays.copyOf(rowYs, rowCount << 1);
+                    rowStarts = Arrays.copyOf(rowStarts, (rowCount << 1) + 1);
+                }
+
+                rowYs[rowCount] = y;
+                rowStarts[rowCount++] = index;
+            }
+
+            if (state != 1 && states == null) {
+                states = new long[size];
+                Arrays.fill(states, 0, index, 1);
+            }
+
+            if (states != null)
+                states[index] = state;
+
+            xs[index] = x;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+        }
+
+        rowStarts[rowCount] = size;
+
+        return new RowIndex(Arrays.copyOf(rowYs, rowCount), Arrays.copyOf(rowStarts, rowCount + 1), xs, states, minX, maxX);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public boolean isEmpty() {
+        return xs.length == 0;
+    }
+
+    public long minX() {
+        requireNonEmpty();
+
+        return minX;
+    }
+
+    public long minY() {
+        requireNonEmpty();
+
+        return rowYs[0];
+    }
+
+    public long maxX() {
+        requireNonEmpty();
+
+        return maxX;
+    }
+
+    public long maxY() {
+        requireNonEmpty();
+
+        return rowYs[rowYs.length - 1];
+    }
+
+    public boolean contains(long x, long y) {
+        return indexOf(x, y) >= 0;
+    }
+
+    public long state(long x, long y) {
+        var index = indexOf(x, y);
+
+        return index < 0 ? 0 : state(index);
+    }
+
+    public int indexOf(long x, long y) {
+        var row = rowOf(y);
+
+        if (row < 0)
+            return -1;
+
+        var index = Arrays.binarySearch(xs, rowStarts[row], rowStarts[row + 1], x);
+
+        return index < 0 ? -1 : index;
+    }
+
+    public int rowCount() {
+        return rowYs.length;
+    }
+
+    public int rowOf(long y) {
+        return Arrays.binarySearch(rowYs, y);
+    }
+
+    public long rowY(int row) {
+        return rowYs[row];
+    }
+
+    public int rowStart(int row) {
+        return rowStarts[row];
+    }
+
+    public int rowEnd(int row) {
+        return rowStarts[row + 1];
+    }
+
+    public long x(int index) {
+        return xs[index];
+    }
+
+    public long state(int index) {
+        return states == null ? 1 : states[index];
+    }
+
+    public void forEachCell(CellSink cellSink) {
+        for (var row = 0; row < rowYs.length; row++)
+            forEachCellInRow(row, rowStarts[row], rowStarts[row + 1], cellSink);
+    }
+
+    public void forEachCellInRow(long y, CellSink cellSink) {
+        var row = rowOf(y);
+
+        if (row >= 0)
+            forEachCellInRow(row, rowStarts[row], rowStarts[row + 1], cellSink);
+    }
+
+    public void forEachCellIn(long minX, long minY, long maxX, long maxY, CellSink cellSink) {
+        if (minX > maxX || minY > maxY)
+            return;
+
+        for (var row = firstRowAtOrAfter(minY); row < rowYs.length && rowYs[row] <= maxY; row++)
+            forEachCellInRow(row, firstIndexAtOrAfter(row, minX), firstIndexAfter(row, maxX), cellSink);
+    }
+
+    public long countIn(long minX, long minY, long maxX, long maxY) {
+        if (minX > maxX || minY > maxY)
+            return 0;
+
+        var count = 0L;
+
+        for (var row = firstRowAtOrAfter(minY); row < rowYs.length && rowYs[row] <= maxY; row++)
+            count += firstIndexAfter(row, maxX) - firstIndexAtOrAfter(row, minX);
+
+        return count;
+    }
+
+    public CellStore toCellStore() {
+        var cellStore = new PackedCellStore(xs.length);
+
+        forEachCell(cellStore);
+
+        return cellStore;
+    }
+
+    private void forEachCellInRow(int row, int from, int to, CellSink cellSink) {
+        var y = rowYs[row];
+
+        if (states != null) {
+            for (var index = from; index < to; index++)
+                cellSink.accept(xs[index], y, states[index]);
+
+            return;
+        }
+
+        for (var index = from; index < to; ) {
+            var runEnd = index + 1;
+
+            while (runEnd < to && xs[runEnd] == xs[runEnd - 1] + 1)
+                runEnd++;
+
+            if (runEnd - index == 1)
+                cellSink.accept(xs[index], y, 1);
+            else
+                cellSink.acceptRun(xs[index], y, runEnd - index, 1);
+
+            index = runEnd;
+        }
+    }
+
+    private int firstRowAtOrAfter(long y) {
+        var row = rowOf(y);
+
+        return row < 0 ? -row - 1 : row;
+    }
+
+    private int firstIndexAtOrAfter(int row, long x) {
+        var index = Arrays.binarySearch(xs, rowStarts[row], rowStarts[row + 1], x);
+
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private int firstIndexAfter(int row, long x) {
+        var index = Arrays.binarySearch(xs, rowStarts[row], rowStarts[row + 1], x);
+
+        return index < 0 ? -index - 1 : index + 1;
+    }
+
+    private void requireNonEmpty() {
+        if (xs.length == 0)
+            throw new NoSuchElementException("Index is empty");
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+
+        if (!(object instanceof RowIndex))
+            return false;
+
+        var rowIndex = (RowIndex) object;
+
+        return Arrays.equals(rowYs, rowIndex.rowYs) &&
+                Arrays.equals(rowStarts, rowIndex.rowStarts) &&
+                Arrays.equals(xs, rowIndex.xs) &&
+                Arrays.equals(states, rowIndex.states);
+    }
+
+    @Override
+    public int hashCode() {
+        var hashCode = Arrays.hashCode(rowYs);
+
+        hashCode = 31 * hashCode + Arrays.hashCode(xs);
+
+        return 31 * hashCode + Arrays.hashCode(states);
+    }
+
+    @Override
+    public String toString() {
+        return "RowIndex{" +
+                "size=" + xs.length +
+                ", rows=" + rowYs.length +
+                '}';
+    }
+
+    public static final class Builder implements CellSink {
+
+        private long[] xs = new long[64];
+        private long[] ys = new long[64];
+        private long[] states;
+        private int size;
+        private CellStore cellStore;
+
+        private Builder() {
+        }
+
+        @Override
+        public void accept(long x, long y, long state) {
+            if (cellStore == null && !isAfterLast(x, y))
+                spill();
+
+            if (cellStore != null) {
+                cellStore.add(x, y, state);
+                return;
+            }
+
+            append(x, y, state);
+        }
+
+        @Override
+        public void acceptRun(long x, long y, long length, long state) {
+            for (var index = 0L; index < length; index++)
+                accept(x + index, y, state);
+        }
+
+        public RowIndex build() {
+            if (cellStore != null)
+                return of(cellStore);
+
+            if (size == 0)
+                return EMPTY;
+
+            var rowCount = 1;
+
+            for (var index = 1; index < size; index++)
+                if (ys[index] != ys[index - 1])
+                    rowCount++;
+
+            var rowYs = new long[rowCount];
+            var rowStarts = new int[rowCount + 1];
+            var minX = Long.MAX_VALUE;
+            var maxX = Long.MIN_VALUE;
+
+            for (int index = 0, row = 0; index < size; index++) {
+                if (index == 0 || ys[index] != ys[index - 1]) {
+                    rowYs[row] = ys[index];
+                    rowStarts[row++] = index;
+                }
+
+                minX = Math.min(minX, xs[index]);
+                maxX = Math.max(maxX, xs[index]);
+            }
+
+            rowStarts[rowCount] = size;
+
+            return new RowIndex(rowYs, rowStarts, Arrays.copyOf(xs, size), states == null ? null : Arrays.copyOf(states, size), minX, maxX);
+        }
+
+        private boolean isAfterLast(long x, long y) {
+            if (size == 0)
+                return true;
+
+            var lastY = ys[size - 1];
+
+            return y > lastY || y == lastY && x > xs[size - 1];
+        }
+
+        private void append(long x, long y, long state) {
+            if (size == xs.length) {
+                if (size == Integer.MAX_VALUE - 8)
+                    throw new IllegalStateException("Index is full");
+
+                var capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) size << 1);
+
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+
+                if (states != null)
+                    states = Arrays.copyOf(states, capacity);
+            }
+
+            if (state != 1 && states == null) {
+                states = new long[xs.length];
+                Arrays.fill(states, 0, size, 1);
+            }
+
+            xs[size] = x;
+            ys[size] = y;
+
+            if (states != null)
+                states[size] = state;
+
+            size++;
+        }
+
+        private void spill() {
+            cellStore = new PackedCellStore(size << 1);
+
+            for (var index = 0; index < size; index++)
+                cellStore.add(xs[index], ys[index], states == null ? 1 : states[index]);
+
+            xs = null;
+            ys = null;
+            states = null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.robertograham.cellularautomata.parsers.common.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+public final class RowSortedCells {
+
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+    private static final long INT_BIAS = 1L << 31;
+
+    private final long[] xs;
+    private final long[] ys;
+    private final long[] states;
+    private final int size;
+
+    private RowSortedCells(long[] xs, long[] ys, long[] states, int size) {
+        this.xs = xs;
+        this.ys = ys;
+        this.states = states;
+        this.size = size;
+    }
+
+    public static RowSortedCells of(CellStore cellStore) {
+        var size = cellStore.size();
+        var xs = new long[size];
+        var ys = new long[size];
+        var states = new long[size];
+        var count = new int[1];
+        var flags = new boolean[]{false, false};
+
+        cellStore.forEachCell((x, y, state) -> {
+            var index = count[0]++;
+
+            xs[index] = x;
+            ys[index] = y;
+            states[index] = state;
+            flags[0] |= state != 1;
+            flags[1] |= x != (int) x || y != (int) y;
+        });
+
+        if (!(cellStore instanceof DenseCellStore) && !(cellStore instanceof OffHeapCellStore)) {
+            if (flags[1])
+                sortWide(xs, ys, states, size);
+            else
+                sortNarrow(xs, ys, states, size, cellStore, flags[0]);
+        }
+
+        return new RowSortedCells(xs, ys, flags[0] ? states : null, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long x(int index) {
+        return xs[index];
+    }
+
+    public long y(int index) {
+        return ys[index];
+    }
+
+    public long state(int index) {
+        return states == null ? 1 : states[index];
+    }
+
+    public int rowEnd(int index) {
+        var y = ys[index];
+
+        while (index < size && ys[index] == y)
+            index++;
+
+        return index;
+    }
+
+    private static void sortNarrow(long[] xs, long[] ys, long[] states, int size, CellStore cellStore, boolean anyStates) {
+        var keys = new long[size];
+
+        for (var index = 0; index < size; index++)
+            keys[index] = ys[index] << 32 | (xs[index] + INT_BIAS);
+
+        if (size >= PARALLEL_SORT_THRESHOLD)
+            Arrays.parallelSort(keys);
+        else
+            Arrays.sort(keys);
+
+        for (var index = 0; index < size; index++) {
+            xs[index] = (keys[index] & 0xFFFFFFFFL) - INT_BIAS;
+            ys[index] = keys[index] >> 32;
+
+            if (anyStates)
+                states[index] = cellStore.state(xs[index], ys[index]);
+        }
+    }
+
+    private static void sortWide(long[] xs, long[] ys, long[] states, int size) {
+        var order = new Integer[size];
+
+        for (var index = 0; index < size; index++)
+            order[index] = index;
+
+        Arrays.sort(order, Comparator.<Integer>comparingLong(index -> ys[index]).thenComparingLong(index -> xs[index]));
+
+        var sortedXs = new long[size];
+        var sortedYs = new long[size];
+        var sortedStates = new long[size];
+
+        for (var index = 0; index < size; index++) {
+            sortedXs[index] = xs[order[index]];
+            sortedYs[index] = ys[order[index]];
+            sortedStates[index] = states[order[index]];
+        }
+
+        System.arraycopy(sortedXs, 0, xs, 0, size);
+        System.arraycopy(sortedYs, 0, ys, 0, size);
+        System.arraycopy(sortedStates, 0, states, 0, size);
+    }
+}
@@ -0,0 +1,213 @@
+package io.github.robertograham.cellularautomata.parsers.common.parser;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.zip.GZIPInputStream;
+
+public final class CellularAutomataPatternParserRegistry {
+
+    private static final int HEADER_SIZE = 512;
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    private static final int GZIP_MAGIC_SIZE = 2;
+
+    private final List<ICellularAutomataPatternParserProvider> providers;
+    private long cellBudget = Long.MAX_VALUE;
+    private long memoryBudget = Long.MAX_VALUE;
+    private ParseListener parseListener;
+
+    private CellularAutomataPatternParserRegistry(List<ICellularAutomataPatternParserProvider> providers) {
+        this.providers = List.copyOf(providers);
+    }
+
+    public static CellularAutomataPatternParserRegistry load() {
+        var providers = new ArrayList<ICellularAutomataPatternParserProvider>();
+
+        for (var provider : ServiceLoader.load(ICellularAutomataPatternParserProvider.class))
+            providers.add(provider);
+
+        return new CellularAutomataPatternParserRegistry(providers);
+    }
+
+    public static CellularAutomataPatternParserRegistry of(List<ICellularAutomataPatternParserProvider> providers) {
+        return new CellularAutomataPatternParserRegistry(providers);
+    }
+
+    public List<ICellularAutomataPatternParserProvider> providers() {
+        return providers;
+    }
+
+    public long getCellBudget() {
+        return cellBudget;
+    }
+
+    public void setCellBudget(long cellBudget) {
+        if (cellBudget < 0)
+            throw new IllegalArgumentException("Cell budget must not be negative");
+
+        this.cellBudget = cellBudget;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0)
+            throw new IllegalArgumentException("Memory budget must not be negative");
+
+        this.memoryBudget = memoryBudget;
+    }
+
+    public ParseListener getParseListener() {
+        return parseListener;
+    }
+
+    public void setParseListener(ParseListener parseListener) {
+        this.parseListener = parseListener;
+    }
+
+    public ICellularAutomataPatternParserProvider detect(ByteBuffer header) {
+        for (var provider : providers)
+            if (provider.matches(header.asReadOnlyBuffer()))
+                return provider;
+
+        throw new IllegalArgumentException("Unrecognised pattern format");
+    }
+
+    public ICellularAutomataPatternParserProvider detect(InputStream inputStream) throws IOException {
+        if (!inputStream.markSupported())
+            throw new IllegalArgumentException("Input stream does not support mark/reset");
+
+        var header = new byte[HEADER_SIZE];
+
+        inputStream.mark(HEADER_SIZE);
+
+        try {
+            return detect(ByteBuffer.wrap(header, 0, read(inputStream, header)));
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    public ICellularAutomataPatternParserProvider detect(Path path) throws IOException {
+        var header = header(path);
+
+        if (!isGzip(header))
+            return detect(header);
+
+        try (var inputStream = gzipInputStream(Files.newInputStream(path))) {
+            var bytes = new byte[HEADER_SIZE];
+
+            return detect(ByteBuffer.wrap(bytes, 0, read(inputStream, bytes)));
+        }
+    }
+
+    public CellularAutomataPattern parse(InputStream inputStream) {
+        var bufferedInputStream = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+
+        try {
+            if (isGzip(bufferedInputStream))
+                bufferedInputStream = new BufferedInputStream(gzipInputStream(bufferedInputStream), GZIP_BUFFER_SIZE);
+
+            return parser(detect(bufferedInputStream)).parse(bufferedInputStream);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public CellularAutomataPattern parse(Path path) {
+        try {
+            var header = header(path);
+
+            if (isGzip(header))
+                try (var inputStream = gzipInputStream(Files.newInputStream(path))) {
+                    return parse(inputStream);
+                }
+
+            return parser(detect(header)).parse(path);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public static boolean isGzip(ByteBuffer header) {
+        return header.remaining() >= GZIP_MAGIC_SIZE &&
+                (header.get(header.position()) & 0xFF) == 0x1F &&
+                (header.get(header.position() + 1) & 0xFF) == 0x8B;
+    }
+
+    private static boolean isGzip(InputStream inputStream) throws IOException {
+        var magic = new byte[GZIP_MAGIC_SIZE];
+
+        inputStream.mark(GZIP_MAGIC_SIZE);
+
+        try {
+            return isGzip(ByteBuffer.wrap(magic, 0, read(inputStream, magic)));
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    private static ByteBuffer header(Path path) throws IOException {
+        try (var fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+
+            while (header.hasRemaining())
+                if (fileChannel.read(header) < 0)
+                    break;
+
+            return header.flip();
+        }
+    }
+
+    private static int read(InputStream inputStream, byte[] bytes) throws IOException {
+        var length = 0;
+
+        while (length < bytes.length) {
+            var read = inputStream.read(bytes, length, bytes.length - length);
+
+            if (read < 0)
+                break;
+
+            length += read;
+        }
+
+        return length;
+    }
+
+    private static InputStream gzipInputStream(InputStream inputStream) throws IOException {
+        try {
+            return new GZIPInputStream(inputStream, GZIP_BUFFER_SIZE);
+        } catch (IOException | RuntimeException exception) {
+            inputStream.close();
+            throw exception;
+        }
+    }
+
+    private ICellularAutomataPatternParser<?> parser(ICellularAutomataPatternParserProvider provider) {
+        var parser = provider.parser();
+
+        if (cellBudget != Long.MAX_VALUE)
+            parser.setCellBudget(cellBudget);
+
+        if (memoryBudget != Long.MAX_VALUE)
+            parser.setMemoryBudget(memoryBudget);
+
+        if (parseListener != null)
+            parser.setParseListener(parseListener);
+
+        return parser;
+    }
+}
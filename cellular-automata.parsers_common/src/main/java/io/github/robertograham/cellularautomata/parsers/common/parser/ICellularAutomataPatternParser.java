@@ -2,9 +2,44 @@ package io.github.robertograham.cellularautomata.parsers.common.parser;
 
 import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public interface ICellularAutomataPatternParser<T extends CellularAutomataPattern> {
 
     T parse(InputStream inputStream);
+
+    default T parse(Path path) {
+        try (var inputStream = Files.newInputStream(path)) {
+            return parse(inputStream);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    default long getCellBudget() {
+        return Long.MAX_VALUE;
+    }
+
+    default void setCellBudget(long cellBudget) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not enforce a cell budget");
+    }
+
+    default long getMemoryBudget() {
+        return Long.MAX_VALUE;
+    }
+
+    default void setMemoryBudget(long memoryBudget) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not enforce a memory budget");
+    }
+
+    default ParseListener getParseListener() {
+        return null;
+    }
+
+    default void setParseListener(ParseListener parseListener) {
+    }
 }
@@ -0,0 +1,14 @@
+package io.github.robertograham.cellularautomata.parsers.common.parser;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+
+import java.nio.ByteBuffer;
+
+public interface ICellularAutomataPatternParserProvider {
+
+    String formatName();
+
+    boolean matches(ByteBuffer header);
+
+    ICellularAutomataPatternParser<? extends CellularAutomataPattern> parser();
+}
@@ -0,0 +1,10 @@
+package io.github.robertograham.cellularautomata.parsers.common.parser;
+
+public class ParseBudgetExceededException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ParseBudgetExceededException(String message) {
+        super(message);
+    }
+}
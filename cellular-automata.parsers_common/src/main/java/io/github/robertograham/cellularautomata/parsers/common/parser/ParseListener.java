@@ -0,0 +1,12 @@
+package io.github.robertograham.cellularautomata.parsers.common.parser;
+
+public interface ParseListener {
+
+    default void parseStarted(ParseMetrics parseMetrics) {
+    }
+
+    void parseCompleted(ParseMetrics parseMetrics);
+
+    default void parseFailed(ParseMetrics parseMetrics, Throwable failure) {
+    }
+}
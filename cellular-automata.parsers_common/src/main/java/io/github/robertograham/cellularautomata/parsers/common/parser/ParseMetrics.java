@@ -0,0 +1,111 @@
+package io.github.robertograham.cellularautomata.parsers.common.parser;
+
+import java.nio.file.Path;
+
+public final class ParseMetrics {
+
+    private static final ParsePhase[] PHASES = ParsePhase.values();
+
+    private final String parser;
+    private final Path path;
+    private final long[] phaseNanos = new long[PHASES.length];
+    private final long startNanos = System.nanoTime();
+    private ParsePhase phase;
+    private long phaseStartNanos;
+    private long totalNanos = -1;
+    private long bytesRead;
+    private long lines;
+    private long cells;
+    private long runs;
+
+    public ParseMetrics(String parser, Path path) {
+        this.parser = parser;
+        this.path = path;
+    }
+
+    public String parser() {
+        return parser;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    public long lines() {
+        return lines;
+    }
+
+    public long cells() {
+        return cells;
+    }
+
+    public long runs() {
+        return runs;
+    }
+
+    public long nanos(ParsePhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long totalNanos() {
+        return totalNanos < 0 ? System.nanoTime() - startNanos : totalNanos;
+    }
+
+    public void enterPhase(ParsePhase phase) {
+        var now = System.nanoTime();
+
+        if (this.phase != null)
+            phaseNanos[this.phase.ordinal()] += now - phaseStartNanos;
+
+        this.phase = phase;
+        phaseStartNanos = now;
+    }
+
+    public void finish() {
+        if (totalNanos >= 0)
+            return;
+
+        enterPhase(null);
+        totalNanos = System.nanoTime() - startNanos;
+    }
+
+    public void recordIo(long bytes, long nanos) {
+        bytesRead += bytes;
+        phaseNanos[ParsePhase.IO.ordinal()] += nanos;
+
+        if (phase != null)
+            phaseStartNanos += nanos;
+    }
+
+    public void recordLine() {
+        lines++;
+    }
+
+    public void recordRun(long length) {
+        runs++;
+        cells += length;
+    }
+
+    @Override
+    public String toString() {
+        var phases = new StringBuilder();
+
+        for (var phase : PHASES)
+            phases.append(", ").append(phase.name().toLowerCase()).append("Nanos=").append(nanos(phase));
+
+        return "ParseMetrics{" +
+                "parser='" + parser + '\'' +
+                ", path=" + path +
+                ", bytesRead=" + bytesRead +
+                ", lines=" + lines +
+                ", cells=" + cells +
+                ", runs=" + runs +
+                phases +
+                ", totalNanos=" + totalNanos() +
+                '}';
+    }
+}
@@ -0,0 +1,5 @@
+package io.github.robertograham.cellularautomata.parsers.common.parser;
+
+public enum ParsePhase {
+    IO, HEADER, CELLS, COMPACTION
+}
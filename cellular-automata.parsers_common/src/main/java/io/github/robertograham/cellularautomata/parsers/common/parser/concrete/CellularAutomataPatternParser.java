@@ -1,25 +1,599 @@
 package io.github.robertograham.cellularautomata.parsers.common.parser.concrete;
 
-import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteInput;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteSource;
+import io.github.robertograham.cellularautomata.parsers.common.model.*;
 import io.github.robertograham.cellularautomata.parsers.common.parser.ICellularAutomataPatternParser;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParseBudgetExceededException;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParseListener;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParseMetrics;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParsePhase;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeCellStore;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 
 public abstract class CellularAutomataPatternParser<T extends CellularAutomataPattern> implements ICellularAutomataPatternParser<T> {
 
-    protected final List<String> readInputStreamToStringList(InputStream inputStream) {
-        try (BufferedReader buffer = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            return buffer.lines()
-                    .collect(Collectors.toList());
-        } catch (IOException ignored) {
-            return new ArrayList<>();
+    private static final long AUTO_DENSE_MAXIMUM_BYTES = 1L << 25;
+    private static final long UNLIMITED = Long.MAX_VALUE;
+
+    private CellStorage cellStorage = CellStorage.SPARSE;
+    private long parallelThreshold = Long.MAX_VALUE;
+    private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+    private boolean lazyCells;
+    private long cellBudget = UNLIMITED;
+    private long memoryBudget = UNLIMITED;
+    private long memoryCellLimit = UNLIMITED;
+    private Path scratchDirectory;
+    private ParseListener parseListener;
+    private final ThreadLocal<ParseMetrics> activeParseMetrics = new ThreadLocal<>();
+    private final ThreadLocal<List<OffHeapCellStore>> openedCellStores = new ThreadLocal<>();
+
+    public CellStorage getCellStorage() {
+        return cellStorage;
+    }
+
+    public void setCellStorage(CellStorage cellStorage) {
+        this.cellStorage = cellStorage;
+    }
+
+    public long getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(long parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public boolean isLazyCells() {
+        return lazyCells;
+    }
+
+    public void setLazyCells(boolean lazyCells) {
+        this.lazyCells = lazyCells;
+    }
+
+    public Path getScratchDirectory() {
+        return scratchDirectory;
+    }
+
+    public void setScratchDirectory(Path scratchDirectory) {
+        this.scratchDirectory = scratchDirectory;
+    }
+
+    @Override
+    public long getCellBudget() {
+        return cellBudget;
+    }
+
+    @Override
+    public void setCellBudget(long cellBudget) {
+        if (cellBudget < 0)
+            throw new IllegalArgumentException("Cell budget must not be negative");
+
+        this.cellBudget = cellBudget;
+    }
+
+    @Override
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    @Override
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0)
+            throw new IllegalArgumentException("Memory budget must not be negative");
+
+        this.memoryBudget = memoryBudget;
+        memoryCellLimit = memoryCellLimit(memoryBudget);
+    }
+
+    @Override
+    public ParseListener getParseListener() {
+        return parseListener;
+    }
+
+    @Override
+    public void setParseListener(ParseListener parseListener) {
+        this.parseListener = parseListener;
+    }
+
+    @Override
+    public T parse(InputStream inputStream) {
+        try (var byteInput = ByteInput.of(inputStream)) {
+            return parse(byteInput, null);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public T parse(Path path) {
+        try (var byteInput = ByteInput.map(path)) {
+            return parse(byteInput, path);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    protected abstract T parse(ByteInput byteInput) throws IOException;
+
+    protected final void enterPhase(ParsePhase phase) {
+        if (parseListener == null)
+            return;
+
+        var parseMetrics = activeParseMetrics.get();
+
+        if (parseMetrics != null)
+            parseMetrics.enterPhase(phase);
+    }
+
+    protected static boolean isLifeHeader(ByteLine line, String version) {
+        line.rewind();
+
+        return line.skipIf("#Life") && line.skipWhitespace() && line.skipIf(version) && line.isAtEnd();
+    }
+
+    protected static boolean isDirective(ByteLine line, char directive) {
+        return line.length() >= 2 && line.byteAt(0) == '#' && line.byteAt(1) == directive;
+    }
+
+    protected static String directiveText(ByteLine line) {
+        line.rewind().skip(2);
+        line.skipWhitespace();
+
+        return line.remainingToString();
+    }
+
+    protected static Coordinate directiveCoordinate(ByteLine line) {
+        line.rewind().skip(2);
+
+        if (!line.skipWhitespace() || !line.hasNextLong())
+            return null;
+
+        var x = line.nextLong();
+
+        if (!line.skipWhitespace() || !line.hasNextLong())
+            return null;
+
+        var y = line.nextLong();
+
+        return line.isAtEnd() ? new Coordinate(x, y) : null;
+    }
+
+    protected final void loadCellsLazily(T pattern, ByteSource byteSource, CellDecoder<T> cellDecoder) {
+        pattern.setCellStoreLoader(() -> {
+            try (var byteInput = byteSource.open()) {
+                pattern.replaceCellStore(newCellStore());
+                cellDecoder.decode(byteInput, pattern);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+    }
+
+    protected final ByteBuffer readFullyIfParallel(ByteInput byteInput) throws IOException {
+        if (parallelThreshold == Long.MAX_VALUE)
+            return null;
+
+        var remaining = byteInput.remaining();
+
+        if (remaining >= 0 && (remaining < parallelThreshold || remaining > Integer.MAX_VALUE))
+            return null;
+
+        return byteInput.readFully();
+    }
+
+    protected final boolean isParallel(ByteBuffer buffer) {
+        return buffer.remaining() >= parallelThreshold;
+    }
+
+    protected final CellSink cellSink(T pattern) {
+        return budgeted(cellStore(pattern), pattern);
+    }
+
+    protected final CellSink cellSink(T pattern, long expectedCells) {
+        if (cellStorage == CellStorage.OFF_HEAP && expectedCells > 0)
+            ((OffHeapCellStore) cellStore(pattern)).ensureCapacity(expectedCells);
+        else if (cellStorage != CellStorage.QUADTREE && cellStorage != CellStorage.DENSE)
+            presize(pattern, expectedCells);
+
+        return cellSink(pattern);
+    }
+
+    protected final CellStore cellStore(T pattern) {
+        if (cellStorage == CellStorage.QUADTREE && !(pattern.cellStore() instanceof QuadTreeCellStore) ||
+                cellStorage == CellStorage.OFF_HEAP && !(pattern.cellStore() instanceof OffHeapCellStore))
+            pattern.replaceCellStore(newCellStore());
+
+        return pattern.cellStore();
+    }
+
+    protected final CellSink cellSink(T pattern, long originX, long originY, long width, long height) {
+        return cellSink(pattern, originX, originY, width, height, 0);
+    }
+
+    protected final CellSink cellSink(T pattern, long originX, long originY, long width, long height, long expectedCells) {
+        switch (cellStorage) {
+            case QUADTREE:
+                return cellSink(pattern);
+            case OFF_HEAP:
+                return cellSink(pattern, expectedCells);
+            case DENSE:
+                checkDenseMemoryBudget(width, height);
+                pattern.setCellStore(new DenseCellStore(originX, originY, width, height));
+                return budgeted(pattern.cellStore(), pattern);
+            case AUTO:
+                if (DenseCellStore.bytesFor(width, height) > Math.min(AUTO_DENSE_MAXIMUM_BYTES, memoryBudget))
+                    return cellSink(pattern, expectedCells);
+
+                var denseCellStore = new DenseCellStore(originX, originY, width, height);
+
+                pattern.setCellStore(denseCellStore);
+
+                return budgeted(new AutoCellSink(pattern, denseCellStore), pattern);
+            default:
+                return cellSink(pattern, expectedCells);
+        }
+    }
+
+    protected final boolean presizesCellStore() {
+        return cellStorage == CellStorage.SPARSE || cellStorage == CellStorage.AUTO;
+    }
+
+    protected final void checkCellBudget(long cells) {
+        if (cells > cellBudget)
+            throw new ParseBudgetExceededException("Pattern has " + cells + " cells, exceeding the cell budget of " + cellBudget);
+    }
+
+    protected static ByteBuffer bufferedRemainder(ByteInput byteInput) throws IOException {
+        var buffer = byteInput.buffer();
+
+        return byteInput.remaining() == buffer.remaining() ? buffer : null;
+    }
+
+    protected final CellSink withCellBudget(CellSink cellSink) {
+        return cellBudget == UNLIMITED ? cellSink : new BudgetCellSink(cellSink, null, cellBudget, UNLIMITED, memoryBudget);
+    }
+
+    protected final void compactCellStore(T pattern) {
+        enterPhase(ParsePhase.COMPACTION);
+
+        if (cellStorage != CellStorage.AUTO || !(pattern.cellStore() instanceof DenseCellStore))
+            return;
+
+        var denseCellStore = (DenseCellStore) pattern.cellStore();
+
+        if (PackedCellStore.bytesFor(denseCellStore.size()) < DenseCellStore.bytesFor(denseCellStore.width(), denseCellStore.height()))
+            pattern.setCellStore(denseCellStore.toPackedCellStore());
+    }
+
+    protected final void compactCellStore(T pattern, long originX, long originY, long width, long height) {
+        enterPhase(ParsePhase.COMPACTION);
+
+        var cellStore = pattern.cellStore();
+
+        if (cellStorage == CellStorage.QUADTREE || cellStorage == CellStorage.OFF_HEAP)
+            return;
+
+        if (cellStorage == CellStorage.SPARSE || cellStore instanceof DenseCellStore) {
+            compactCellStore(pattern);
+            return;
+        }
+
+        var denseBytes = DenseCellStore.bytesFor(width, height);
+
+        if (cellStorage == CellStorage.DENSE)
+            checkDenseMemoryBudget(width, height);
+
+        if (cellStorage == CellStorage.DENSE || denseBytes <= AUTO_DENSE_MAXIMUM_BYTES && denseBytes < PackedCellStore.bytesFor(cellStore.size()))
+            pattern.setCellStore(DenseCellStore.of(cellStore, originX, originY, width, height));
+    }
+
+    private T parse(ByteInput byteInput, Path path) throws IOException {
+        if (cellStorage != CellStorage.OFF_HEAP)
+            return parseWithListener(byteInput, path);
+
+        var cellStores = new ArrayList<OffHeapCellStore>();
+
+        openedCellStores.set(cellStores);
+
+        try {
+            return parseWithListener(byteInput, path);
+        } catch (IOException | RuntimeException | Error exception) {
+            for (var cellStore : cellStores)
+                cellStore.close();
+
+            throw exception;
+        } finally {
+            openedCellStores.remove();
+        }
+    }
+
+    private T parseWithListener(ByteInput byteInput, Path path) throws IOException {
+        var parseListener = this.parseListener;
+
+        if (parseListener == null)
+            return parse(byteInput);
+
+        var parseMetrics = new ParseMetrics(getClass().getName(), path);
+
+        parseListener.parseStarted(parseMetrics);
+        activeParseMetrics.set(parseMetrics);
+        parseMetrics.enterPhase(ParsePhase.HEADER);
+
+        try {
+            var pattern = parse(new InstrumentedByteInput(byteInput, parseMetrics));
+
+            parseMetrics.finish();
+            parseListener.parseCompleted(parseMetrics);
+
+            return pattern;
+        } catch (IOException | RuntimeException | Error exception) {
+            parseMetrics.finish();
+            parseListener.parseFailed(parseMetrics, exception);
+            throw exception;
+        } finally {
+            activeParseMetrics.remove();
+        }
+    }
+
+    private CellStore newCellStore() {
+        switch (cellStorage) {
+            case QUADTREE:
+                return new QuadTreeCellStore();
+            case OFF_HEAP:
+                var cellStore = scratchDirectory == null ? OffHeapCellStore.mapped() : OffHeapCellStore.mapped(scratchDirectory);
+                var cellStores = openedCellStores.get();
+
+                if (cellStores != null)
+                    cellStores.add(cellStore);
+
+                return cellStore;
+            default:
+                return new PackedCellStore();
+        }
+    }
+
+    private void presize(T pattern, long expectedCells) {
+        if (expectedCells <= 0)
+            return;
+
+        var cellStore = pattern.cellStore();
+
+        if (cellStore instanceof PackedCellStore && cellStore.isEmpty())
+            pattern.setCellStore(new PackedCellStore((int) Math.min(Math.min(expectedCells, memoryCellLimit), Integer.MAX_VALUE)));
+    }
+
+    private void checkDenseMemoryBudget(long width, long height) {
+        if (DenseCellStore.bytesFor(width, height) > memoryBudget)
+            throw new ParseBudgetExceededException("A " + width + "x" + height + " dense cell store exceeds the memory budget of " + memoryBudget + " bytes");
+    }
+
+    private CellSink budgeted(CellSink cellSink, T pattern) {
+        if (cellBudget != UNLIMITED || memoryCellLimit != UNLIMITED)
+            cellSink = new BudgetCellSink(cellSink, pattern, cellBudget, memoryCellLimit, memoryBudget);
+
+        return counted(cellSink);
+    }
+
+    private static long memoryCellLimit(long memoryBudget) {
+        if (PackedCellStore.bytesFor(Integer.MAX_VALUE) <= memoryBudget)
+            return UNLIMITED;
+
+        var low = 0;
+        var high = Integer.MAX_VALUE;
+
+        while (low < high) {
+            var middle = (low + high + 1) >>> 1;
+
+            if (PackedCellStore.bytesFor(middle) <= memoryBudget)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+
+        return low;
+    }
+
+    private CellSink counted(CellSink cellSink) {
+        if (parseListener == null)
+            return cellSink;
+
+        var parseMetrics = activeParseMetrics.get();
+
+        return parseMetrics == null ? cellSink : new CountingCellSink(cellSink, parseMetrics);
+    }
+
+    @FunctionalInterface
+    protected interface CellDecoder<T> {
+
+        void decode(ByteInput byteInput, T pattern) throws IOException;
+    }
+
+    private static final class AutoCellSink implements CellSink {
+
+        private final CellularAutomataPattern pattern;
+        private CellStore cellStore;
+        private DenseCellStore denseCellStore;
+
+        private AutoCellSink(CellularAutomataPattern pattern, DenseCellStore denseCellStore) {
+            this.pattern = pattern;
+            this.denseCellStore = denseCellStore;
+            cellStore = denseCellStore;
+        }
+
+        @Override
+        public void accept(long x, long y, long state) {
+            fallBackUnlessDense(x, y, state);
+            cellStore.accept(x, y, state);
+        }
+
+        @Override
+        public void acceptRun(long x, long y, long length, long state) {
+            if (length > 0)
+                fallBackUnlessDense(x + length - 1, y, state);
+
+            fallBackUnlessDense(x, y, state);
+            cellStore.acceptRun(x, y, length, state);
+        }
+
+        private void fallBackUnlessDense(long x, long y, long state) {
+            if (denseCellStore == null || state == 1 && denseCellStore.isInBounds(x, y))
+                return;
+
+            cellStore = denseCellStore.toPackedCellStore();
+            denseCellStore = null;
+            pattern.setCellStore(cellStore);
+        }
+    }
+
+    private static final class BudgetCellSink implements CellSink {
+
+        private final CellSink cellSink;
+        private final CellularAutomataPattern pattern;
+        private final long cellLimit;
+        private final long memoryCellLimit;
+        private final long memoryBudget;
+        private long cells;
+
+        private BudgetCellSink(CellSink cellSink, CellularAutomataPattern pattern, long cellLimit, long memoryCellLimit, long memoryBudget) {
+            this.cellSink = cellSink;
+            this.pattern = pattern;
+            this.cellLimit = cellLimit;
+            this.memoryCellLimit = memoryCellLimit;
+            this.memoryBudget = memoryBudget;
+        }
+
+        @Override
+        public void accept(long x, long y, long state) {
+            reserve(1);
+            cellSink.accept(x, y, state);
+        }
+
+        @Override
+        public void acceptRun(long x, long y, long length, long state) {
+            if (length > 0)
+                reserve(length);
+
+            cellSink.acceptRun(x, y, length, state);
+        }
+
+        private void reserve(long length) {
+            cells = length > Long.MAX_VALUE - cells ? Long.MAX_VALUE : cells + length;
+
+            if (cells > cellLimit)
+                throw new ParseBudgetExceededException("Pattern has more than " + cellLimit + " cells, exceeding the cell budget");
+
+            if (cells > memoryCellLimit && !(pattern.cellStore() instanceof DenseCellStore) && !(pattern.cellStore() instanceof OffHeapCellStore))
+                throw new ParseBudgetExceededException("Pattern has more than " + memoryCellLimit + " cells, exceeding the memory budget of " + memoryBudget + " bytes");
+        }
+    }
+
+    private static final class CountingCellSink implements CellSink {
+
+        private final CellSink cellSink;
+        private final ParseMetrics parseMetrics;
+
+        private CountingCellSink(CellSink cellSink, ParseMetrics parseMetrics) {
+            this.cellSink = cellSink;
+            this.parseMetrics = parseMetrics;
+        }
+
+        @Override
+        public void accept(long x, long y, long state) {
+            parseMetrics.recordRun(1);
+            cellSink.accept(x, y, state);
+        }
+
+        @Override
+        public void acceptRun(long x, long y, long length, long state) {
+            parseMetrics.recordRun(length);
+            cellSink.acceptRun(x, y, length, state);
+        }
+    }
+
+    private static final class InstrumentedByteInput extends ByteInput {
+
+        private final ByteInput byteInput;
+        private final ParseMetrics parseMetrics;
+
+        private InstrumentedByteInput(ByteInput byteInput, ParseMetrics parseMetrics) {
+            this.byteInput = byteInput;
+            this.parseMetrics = parseMetrics;
+            parseMetrics.recordIo(byteInput.buffer().remaining(), 0);
+        }
+
+        @Override
+        public ByteBuffer buffer() {
+            return byteInput.buffer();
+        }
+
+        @Override
+        public boolean fill() throws IOException {
+            var startNanos = System.nanoTime();
+            var filled = byteInput.fill();
+
+            parseMetrics.recordIo(filled ? byteInput.buffer().remaining() : 0, System.nanoTime() - startNanos);
+
+            return filled;
+        }
+
+        @Override
+        public long remaining() throws IOException {
+            return byteInput.remaining();
+        }
+
+        @Override
+        public ByteBuffer readFully() throws IOException {
+            var buffered = byteInput.buffer().remaining();
+            var startNanos = System.nanoTime();
+            var fully = byteInput.readFully();
+
+            parseMetrics.recordIo(fully.remaining() - buffered, System.nanoTime() - startNanos);
+
+            return fully;
+        }
+
+        @Override
+        public ByteSource retainRemaining() throws IOException {
+            var startNanos = System.nanoTime();
+            var byteSource = byteInput.retainRemaining();
+
+            parseMetrics.recordIo(0, System.nanoTime() - startNanos);
+
+            return byteSource;
+        }
+
+        @Override
+        public boolean readLine(ByteLine line) throws IOException {
+            if (!super.readLine(line))
+                return false;
+
+            parseMetrics.recordLine();
+
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            byteInput.close();
         }
     }
 }
@@ -0,0 +1,311 @@
+package io.github.robertograham.cellularautomata.parsers.common.quadtree;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public final class QuadTree {
+
+    public static final int MAXIMUM_LEVEL = 63;
+    public static final int MINIMUM_ROOT_LEVEL = QuadTreeNode.LEAF_LEVEL + 1;
+
+    private final QuadTreeNodeTable nodeTable;
+    private QuadTreeNode root;
+
+    public QuadTree() {
+        this(new QuadTreeNodeTable());
+    }
+
+    public QuadTree(QuadTreeNodeTable nodeTable) {
+        this(nodeTable, nodeTable.empty(MINIMUM_ROOT_LEVEL));
+    }
+
+    public QuadTree(QuadTreeNodeTable nodeTable, QuadTreeNode root) {
+        if (root.level() < MINIMUM_ROOT_LEVEL)
+            throw new IllegalArgumentException("Quad tree root must be at least level " + MINIMUM_ROOT_LEVEL);
+
+        this.nodeTable = nodeTable;
+        this.root = root;
+    }
+
+    public static long originOf(int level) {
+        return -(1L << (level - 1));
+    }
+
+    public QuadTreeNodeTable nodeTable() {
+        return nodeTable;
+    }
+
+    public QuadTreeNode root() {
+        return root;
+    }
+
+    public void setRoot(QuadTreeNode root) {
+        if (root.level() < MINIMUM_ROOT_LEVEL)
+            throw new IllegalArgumentException("Quad tree root must be at least level " + MINIMUM_ROOT_LEVEL);
+
+        this.root = root;
+    }
+
+    public long population() {
+        return root.population();
+    }
+
+    public boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    public boolean contains(long x, long y) {
+        if (!isInRange(x, y, root.level()))
+            return false;
+
+        var node = root;
+        var x0 = originOf(node.level());
+        var y0 = x0;
+
+        while (!node.isLeaf()) {
+            if (node.isEmpty())
+                return false;
+
+            var half = 1L << (node.level() - 1);
+            var east = x - x0 >= half;
+            var south = y - y0 >= half;
+
+            node = south ? east ? node.se() : node.sw() : east ? node.ne() : node.nw();
+            x0 += east ? half : 0;
+            y0 += south ? half : 0;
+        }
+
+        return (node.bits() & bit(x - x0, y - y0)) != 0;
+    }
+
+    public boolean set(long x, long y) {
+        if (contains(x, y))
+            return false;
+
+        expandToContain(x, y);
+
+        var origin = originOf(root.level());
+
+        root = set(root, origin, origin, x, y, true);
+
+        return true;
+    }
+
+    public boolean clear(long x, long y) {
+        if (!contains(x, y))
+            return false;
+
+        var origin = originOf(root.level());
+
+        root = set(root, origin, origin, x, y, false);
+
+        return true;
+    }
+
+    public void clear() {
+        root = nodeTable.empty(MINIMUM_ROOT_LEVEL);
+    }
+
+    public void union(QuadTreeNode other) {
+        var level = Math.max(root.level(), other.level());
+
+        root = union(expand(root, level), expand(other, level));
+    }
+
+    public void forEachCell(CellSink cellSink) {
+        var origin = originOf(root.level());
+
+        forEachCell(root, origin, origin, cellSink);
+    }
+
+    public long minX() {
+        checkNotEmpty();
+        return originOf(root.level()) + minOffset(root, true, new IdentityHashMap<>());
+    }
+
+    public long minY() {
+        checkNotEmpty();
+        return originOf(root.level()) + minOffset(root, false, new IdentityHashMap<>());
+    }
+
+    public long maxX() {
+        checkNotEmpty();
+        return originOf(root.level()) + maxOffset(root, true, new IdentityHashMap<>());
+    }
+
+    public long maxY() {
+        checkNotEmpty();
+        return originOf(root.level()) + maxOffset(root, false, new IdentityHashMap<>());
+    }
+
+    static boolean isInRange(long x, long y, int level) {
+        var half = 1L << (level - 1);
+
+        return x >= -half && x < half && y >= -half && y < half;
+    }
+
+    QuadTreeNode expand(QuadTreeNode node, int level) {
+        while (node.level() < level) {
+            var empty = nodeTable.empty(node.level() - 1);
+
+            node = nodeTable.node(
+                    nodeTable.node(empty, empty, empty, node.nw()),
+                    nodeTable.node(empty, empty, node.ne(), empty),
+                    nodeTable.node(empty, node.sw(), empty, empty),
+                    nodeTable.node(node.se(), empty, empty, empty)
+            );
+        }
+
+        return node;
+    }
+
+    private void expandToContain(long x, long y) {
+        while (!isInRange(x, y, root.level())) {
+            if (root.level() == MAXIMUM_LEVEL)
+                throw new IllegalArgumentException("Cell (" + x + ", " + y + ") lies outside the quad tree bounds");
+
+            root = expand(root, root.level() + 1);
+        }
+    }
+
+    private QuadTreeNode set(QuadTreeNode node, long x0, long y0, long x, long y, boolean alive) {
+        if (node.isLeaf()) {
+            var bit = bit(x - x0, y - y0);
+
+            return nodeTable.leaf(alive ? node.bits() | bit : node.bits() & ~bit);
+        }
+
+        var half = 1L << (node.level() - 1);
+        var nw = node.nw();
+        var ne = node.ne();
+        var sw = node.sw();
+        var se = node.se();
+
+        if (y - y0 < half) {
+            if (x - x0 < half)
+                nw = set(nw, x0, y0, x, y, alive);
+            else
+                ne = set(ne, x0 + half, y0, x, y, alive);
+        } else if (x - x0 < half)
+            sw = set(sw, x0, y0 + half, x, y, alive);
+        else
+            se = set(se, x0 + half, y0 + half, x, y, alive);
+
+        return nodeTable.node(nw, ne, sw, se);
+    }
+
+    private QuadTreeNode union(QuadTreeNode first, QuadTreeNode second) {
+        if (first == second || second.isEmpty())
+            return first;
+
+        if (first.isEmpty())
+            return second;
+
+        if (first.isLeaf())
+            return nodeTable.leaf(first.bits() | second.bits());
+
+        return nodeTable.node(
+                union(first.nw(), second.nw()),
+                union(first.ne(), second.ne()),
+                union(first.sw(), second.sw()),
+                union(first.se(), second.se())
+        );
+    }
+
+    private static void forEachCell(QuadTreeNode node, long x0, long y0, CellSink cellSink) {
+        if (node.isEmpty())
+            return;
+
+        if (node.isLeaf()) {
+            for (var bits = node.bits(); bits != 0; bits &= bits - 1) {
+                var index = Long.numberOfTrailingZeros(bits);
+                cellSink.accept(x0 + (index & 7), y0 + (index >>> 3), 1);
+            }
+
+            return;
+        }
+
+        var half = 1L << (node.level() - 1);
+
+        forEachCell(node.nw(), x0, y0, cellSink);
+        forEachCell(node.ne(), x0 + half, y0, cellSink);
+        forEachCell(node.sw(), x0, y0 + half, cellSink);
+        forEachCell(node.se(), x0 + half, y0 + half, cellSink);
+    }
+
+    private static long minOffset(QuadTreeNode node, boolean horizontal, Map<QuadTreeNode, Long> offsets) {
+        if (node.isLeaf())
+            return horizontal ? Integer.numberOfTrailingZeros(columns(node.bits())) : Long.numberOfTrailingZeros(node.bits()) >>> 3;
+
+        var offset = offsets.get(node);
+
+        if (offset != null)
+            return offset;
+
+        var first = node.nw();
+        var second = horizontal ? node.sw() : node.ne();
+        var shift = 0L;
+
+        if (first.isEmpty() && second.isEmpty()) {
+            first = horizontal ? node.ne() : node.sw();
+            second = node.se();
+            shift = 1L << (node.level() - 1);
+        }
+
+        offset = shift + Math.min(
+                first.isEmpty() ? Long.MAX_VALUE : minOffset(first, horizontal, offsets),
+                second.isEmpty() ? Long.MAX_VALUE : minOffset(second, horizontal, offsets)
+        );
+        offsets.put(node, offset);
+
+        return offset;
+    }
+
+    private static long maxOffset(QuadTreeNode node, boolean horizontal, Map<QuadTreeNode, Long> offsets) {
+        if (node.isLeaf())
+            return horizontal ? 31 - Integer.numberOfLeadingZeros(columns(node.bits())) : (63 - Long.numberOfLeadingZeros(node.bits())) >>> 3;
+
+        var offset = offsets.get(node);
+
+        if (offset != null)
+            return offset;
+
+        var first = horizontal ? node.ne() : node.sw();
+        var second = node.se();
+        var shift = 1L << (node.level() - 1);
+
+        if (first.isEmpty() && second.isEmpty()) {
+            first = node.nw();
+            second = horizontal ? node.sw() : node.ne();
+            shift = 0;
+        }
+
+        offset = shift + Math.max(
+                first.isEmpty() ? Long.MIN_VALUE : maxOffset(first, horizontal, offsets),
+                second.isEmpty() ? Long.MIN_VALUE : maxOffset(second, horizontal, offsets)
+        );
+        offsets.put(node, offset);
+
+        return offset;
+    }
+
+    private static int columns(long bits) {
+        bits |= bits >>> 32;
+        bits |= bits >>> 16;
+        bits |= bits >>> 8;
+
+        return (int) (bits & 0xFF);
+    }
+
+    private static long bit(long x, long y) {
+        return 1L << (y << 3 | x);
+    }
+
+    private void checkNotEmpty() {
+        if (isEmpty())
+            throw new NoSuchElementException("Quad tree is empty");
+    }
+}
@@ -0,0 +1,239 @@
+package io.github.robertograham.cellularautomata.parsers.common.quadtree;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
+
+import java.util.Arrays;
+
+public class QuadTreeBuilder implements CellSink {
+
+    static final int BATCH_BLOCKS = 1 << 16;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long MAXIMUM_COORDINATE = 1L << (QuadTree.MAXIMUM_LEVEL - 1);
+
+    private long[] blockXs;
+    private long[] blockYs;
+    private long[] blockBits;
+    private int mask;
+    private int size;
+
+    public QuadTreeBuilder() {
+        allocate(1 << 10);
+    }
+
+    public boolean add(long x, long y) {
+        checkRange(x, y);
+
+        var bit = 1L << ((y & 7) << 3 | (x & 7));
+        var slot = slot(x >> 3, y >> 3);
+        var added = (blockBits[slot] & bit) == 0;
+
+        blockBits[slot] |= bit;
+
+        return added;
+    }
+
+    public boolean contains(long x, long y) {
+        var slot = find(x >> 3, y >> 3);
+
+        return slot >= 0 && (blockBits[slot] & 1L << ((y & 7) << 3 | (x & 7))) != 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size >= BATCH_BLOCKS;
+    }
+
+    @Override
+    public void accept(long x, long y, long state) {
+        checkState(state);
+        add(x, y);
+    }
+
+    @Override
+    public void acceptRun(long x, long y, long length, long state) {
+        if (length <= 0)
+            return;
+
+        checkState(state);
+        checkRange(x, y);
+        checkRange(x + length - 1, y);
+
+        var rowShift = (y & 7) << 3;
+        var blockY = y >> 3;
+        var end = x + length;
+
+        while (x < end) {
+            var blockEnd = Math.min(end, (x | 7) + 1);
+            var rowBits = ((1L << (blockEnd - x)) - 1) << (x & 7);
+            var slot = slot(x >> 3, blockY);
+
+            blockBits[slot] |= rowBits << rowShift;
+            x = blockEnd;
+        }
+    }
+
+    public QuadTreeNode build(QuadTreeNodeTable nodeTable) {
+        var count = 0;
+
+        for (var slot = 0; slot < blockXs.length; slot++)
+            if (blockXs[slot] != EMPTY && blockBits[slot] != 0) {
+                blockXs[count] = blockXs[slot];
+                blockYs[count] = blockYs[slot];
+                blockBits[count] = blockBits[slot];
+                count++;
+            }
+
+        var level = QuadTree.MINIMUM_ROOT_LEVEL;
+
+        for (var index = 0; index < count; index++)
+            while (!QuadTree.isInRange(blockXs[index] << 3, blockYs[index] << 3, level))
+                level++;
+
+        var originBlock = QuadTree.originOf(level) >> 3;
+        var root = build(nodeTable, level, originBlock, originBlock, 0, count);
+
+        allocate(1 << 10);
+
+        return root;
+    }
+
+    private QuadTreeNode build(QuadTreeNodeTable nodeTable, int level, long blockX0, long blockY0, int from, int to) {
+        if (from == to)
+            return nodeTable.empty(level);
+
+        if (level == QuadTreeNode.LEAF_LEVEL)
+            return nodeTable.leaf(blockBits[from]);
+
+        var halfBlocks = 1L << (level - QuadTreeNode.LEAF_LEVEL - 1);
+        var middleX = blockX0 + halfBlocks;
+        var middleY = blockY0 + halfBlocks;
+        var northEnd = partition(blockYs, middleY, from, to);
+        var northWestEnd = partition(blockXs, middleX, from, northEnd);
+        var southWestEnd = partition(blockXs, middleX, northEnd, to);
+
+        return nodeTable.node(
+                build(nodeTable, level - 1, blockX0, blockY0, from, northWestEnd),
+                build(nodeTable, level - 1, middleX, blockY0, northWestEnd, northEnd),
+                build(nodeTable, level - 1, blockX0, middleY, northEnd, southWestEnd),
+                build(nodeTable, level - 1, middleX, middleY, southWestEnd, to)
+        );
+    }
+
+    private int partition(long[] keys, long middle, int from, int to) {
+        var low = from;
+        var high = to - 1;
+
+        while (low <= high) {
+            if (keys[low] < middle)
+                low++;
+            else
+                swap(low, high--);
+        }
+
+        return low;
+    }
+
+    private void swap(int first, int second) {
+        swap(blockXs, first, second);
+        swap(blockYs, first, second);
+        swap(blockBits, first, second);
+    }
+
+    private static void swap(long[] values, int first, int second) {
+        var value = values[first];
+
+        values[first] = values[second];
+        values[second] = value;
+    }
+
+    private int slot(long blockX, long blockY) {
+        var slot = hash(blockX, blockY) & mask;
+
+        for (var current = blockXs[slot]; current != EMPTY; current = blockXs[slot]) {
+            if (current == blockX && blockYs[slot] == blockY)
+                return slot;
+
+            slot = (slot + 1) & mask;
+        }
+
+        blockXs[slot] = blockX;
+        blockYs[slot] = blockY;
+
+        if (++size > (mask + 1) >> 1) {
+            rehash((mask + 1) << 1);
+            return find(blockX, blockY);
+        }
+
+        return slot;
+    }
+
+    private int find(long blockX, long blockY) {
+        var slot = hash(blockX, blockY) & mask;
+
+        for (var current = blockXs[slot]; current != EMPTY; current = blockXs[slot]) {
+            if (current == blockX && blockYs[slot] == blockY)
+                return slot;
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private static int hash(long blockX, long blockY) {
+        var key = blockX * 0x9E3779B97F4A7C15L ^ blockY;
+
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+
+        return (int) (key ^ (key >>> 33));
+    }
+
+    private void allocate(int capacity) {
+        blockXs = new long[capacity];
+        blockYs = new long[capacity];
+        blockBits = new long[capacity];
+        Arrays.fill(blockXs, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        var oldBlockXs = blockXs;
+        var oldBlockYs = blockYs;
+        var oldBlockBits = blockBits;
+        var oldSize = size;
+
+        allocate(capacity);
+
+        for (var slot = 0; slot < oldBlockXs.length; slot++) {
+            if (oldBlockXs[slot] == EMPTY)
+                continue;
+
+            var newSlot = hash(oldBlockXs[slot], oldBlockYs[slot]) & mask;
+
+            while (blockXs[newSlot] != EMPTY)
+                newSlot = (newSlot + 1) & mask;
+
+            blockXs[newSlot] = oldBlockXs[slot];
+            blockYs[newSlot] = oldBlockYs[slot];
+            blockBits[newSlot] = oldBlockBits[slot];
+        }
+
+        size = oldSize;
+    }
+
+    static void checkState(long state) {
+        if (state != 1)
+            throw new IllegalArgumentException("Quad tree only holds cells of state 1");
+    }
+
+    static void checkRange(long x, long y) {
+        if (x < -MAXIMUM_COORDINATE || x >= MAXIMUM_COORDINATE || y < -MAXIMUM_COORDINATE || y >= MAXIMUM_COORDINATE)
+            throw new IllegalArgumentException("Cell (" + x + ", " + y + ") lies outside the quad tree bounds");
+    }
+}
@@ -0,0 +1,227 @@
+package io.github.robertograham.cellularautomata.parsers.common.quadtree;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.Cell;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.Coordinate;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class QuadTreeCellStore extends CellStore {
+
+    private static final long BATCH_RUN_LENGTH = (long) QuadTreeBuilder.BATCH_BLOCKS << 3;
+
+    private final QuadTree quadTree;
+    private QuadTreeBuilder pending = new QuadTreeBuilder();
+
+    public QuadTreeCellStore() {
+        this(new QuadTreeNodeTable());
+    }
+
+    public QuadTreeCellStore(QuadTreeNodeTable nodeTable) {
+        quadTree = new QuadTree(nodeTable);
+    }
+
+    public QuadTreeCellStore(QuadTreeNodeTable nodeTable, QuadTreeNode root) {
+        quadTree = new QuadTree(nodeTable, root);
+    }
+
+    public static QuadTreeCellStore of(CellStore cellStore) {
+        var quadTreeCellStore = new QuadTreeCellStore();
+
+        cellStore.forEachCell(quadTreeCellStore);
+
+        return quadTreeCellStore;
+    }
+
+    public QuadTree quadTree() {
+        modified();
+
+        return flushed();
+    }
+
+    public long population() {
+        return flushed().population();
+    }
+
+    @Override
+    public CellStore newCellStore(int expectedSize) {
+        return new QuadTreeCellStore(quadTree.nodeTable());
+    }
+
+    @Override
+    public boolean add(long x, long y, long state) {
+        QuadTreeBuilder.checkState(state);
+
+        if (quadTree.contains(x, y))
+            return false;
+
+        modified();
+
+        var added = pending.add(x, y);
+
+        flushIfFull();
+
+        return added;
+    }
+
+    @Override
+    public void accept(long x, long y, long state) {
+        modified();
+        pending.accept(x, y, state);
+        flushIfFull();
+    }
+
+    @Override
+    public void acceptRun(long x, long y, long length, long state) {
+        if (length <= 0)
+            return;
+
+        QuadTreeBuilder.checkState(state);
+        QuadTreeBuilder.checkRange(x, y);
+        QuadTreeBuilder.checkRange(x + length - 1, y);
+        modified();
+
+        for (; length > BATCH_RUN_LENGTH; x += BATCH_RUN_LENGTH, length -= BATCH_RUN_LENGTH) {
+            pending.acceptRun(x, y, BATCH_RUN_LENGTH, state);
+            flushIfFull();
+        }
+
+        pending.acceptRun(x, y, length, state);
+        flushIfFull();
+    }
+
+    @Override
+    public boolean remove(long x, long y) {
+        modified();
+
+        return flushed().clear(x, y);
+    }
+
+    @Override
+    public boolean contains(long x, long y) {
+        return quadTree.contains(x, y) || pending.contains(x, y);
+    }
+
+    @Override
+    public long state(long x, long y) {
+        return contains(x, y) ? 1 : 0;
+    }
+
+    @Override
+    public void forEachCell(CellSink cellSink) {
+        flushed().forEachCell(cellSink);
+    }
+
+    @Override
+    public Iterator<Cell> iterator() {
+        return new QuadTreeCellIterator(flushed().root());
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(population(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void clear() {
+        modified();
+        quadTree.clear();
+        pending = new QuadTreeBuilder();
+    }
+
+    private void flushIfFull() {
+        if (pending.isFull())
+            quadTree.union(pending.build(quadTree.nodeTable()));
+    }
+
+    private QuadTree flushed() {
+        if (!pending.isEmpty())
+            quadTree.union(pending.build(quadTree.nodeTable()));
+
+        return quadTree;
+    }
+
+    private final class QuadTreeCellIterator implements Iterator<Cell> {
+
+        private final QuadTreeNode[] nodes = new QuadTreeNode[QuadTree.MAXIMUM_LEVEL * 3 + 1];
+        private final long[] xs = new long[nodes.length];
+        private final long[] ys = new long[nodes.length];
+        private int depth;
+        private long bits;
+        private long leafX;
+        private long leafY;
+        private long lastX;
+        private long lastY;
+        private boolean removable;
+
+        private QuadTreeCellIterator(QuadTreeNode root) {
+            push(root, QuadTree.originOf(root.level()), QuadTree.originOf(root.level()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (bits == 0) {
+                if (depth == 0)
+                    return false;
+
+                var node = nodes[--depth];
+                var x0 = xs[depth];
+                var y0 = ys[depth];
+
+                nodes[depth] = null;
+
+                if (node.isLeaf()) {
+                    bits = node.bits();
+                    leafX = x0;
+                    leafY = y0;
+                    continue;
+                }
+
+                var half = 1L << (node.level() - 1);
+
+                push(node.se(), x0 + half, y0 + half);
+                push(node.sw(), x0, y0 + half);
+                push(node.ne(), x0 + half, y0);
+                push(node.nw(), x0, y0);
+            }
+
+            return true;
+        }
+
+        @Override
+        public Cell next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            var index = Long.numberOfTrailingZeros(bits);
+
+            bits &= bits - 1;
+            lastX = leafX + (index & 7);
+            lastY = leafY + (index >>> 3);
+            removable = true;
+
+            return new Cell(new Coordinate(lastX, lastY), 1);
+        }
+
+        @Override
+        public void remove() {
+            if (!removable)
+                throw new IllegalStateException();
+
+            QuadTreeCellStore.this.remove(lastX, lastY);
+            removable = false;
+        }
+
+        private void push(QuadTreeNode node, long x0, long y0) {
+            if (node.isEmpty())
+                return;
+
+            nodes[depth] = node;
+            xs[depth] = x0;
+            ys[depth] = y0;
+            depth++;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.robertograham.cellularautomata.parsers.common.quadtree;
+
+public final class QuadTreeNode {
+
+    public static final int LEAF_LEVEL = 3;
+
+    private final int level;
+    private final QuadTreeNode nw;
+    private final QuadTreeNode ne;
+    private final QuadTreeNode sw;
+    private final QuadTreeNode se;
+    private final long bits;
+    private final long population;
+    private final int hash;
+    QuadTreeNode next;
+
+    QuadTreeNode(long bits) {
+        level = LEAF_LEVEL;
+        nw = ne = sw = se = null;
+        this.bits = bits;
+        population = Long.bitCount(bits);
+        hash = leafHash(bits);
+    }
+
+    QuadTreeNode(QuadTreeNode nw, QuadTreeNode ne, QuadTreeNode sw, QuadTreeNode se) {
+        level = nw.level + 1;
+        this.nw = nw;
+        this.ne = ne;
+        this.sw = sw;
+        this.se = se;
+        bits = 0;
+        population = add(add(nw.population, ne.population), add(sw.population, se.population));
+        hash = nodeHash(nw, ne, sw, se);
+    }
+
+    static int leafHash(long bits) {
+        bits = (bits ^ (bits >>> 33)) * 0xFF51AFD7ED558CCDL;
+        bits = (bits ^ (bits >>> 33)) * 0xC4CEB9FE1A85EC53L;
+
+        return (int) (bits ^ (bits >>> 33));
+    }
+
+    static int nodeHash(QuadTreeNode nw, QuadTreeNode ne, QuadTreeNode sw, QuadTreeNode se) {
+        var hash = nw.hash;
+
+        hash = hash * 0x9E3779B1 + ne.hash;
+        hash = hash * 0x9E3779B1 + sw.hash;
+        hash = hash * 0x9E3779B1 + se.hash;
+
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long add(long population, long other) {
+        var sum = population + other;
+
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    public int level() {
+        return level;
+    }
+
+    public boolean isLeaf() {
+        return level == LEAF_LEVEL;
+    }
+
+    public boolean isEmpty() {
+        return population == 0;
+    }
+
+    public QuadTreeNode nw() {
+        return nw;
+    }
+
+    public QuadTreeNode ne() {
+        return ne;
+    }
+
+    public QuadTreeNode sw() {
+        return sw;
+    }
+
+    public QuadTreeNode se() {
+        return se;
+    }
+
+    public long bits() {
+        return bits;
+    }
+
+    public long population() {
+        return population;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "QuadTreeNode{" +
+                "level=" + level +
+                ", population=" + population +
+                '}';
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.robertograham.cellularautomata.parsers.common.quadtree;
+
+public class QuadTreeNodeTable {
+
+    private static final float LOAD_FACTOR = 0.75F;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final QuadTreeNode[] emptyNodes = new QuadTreeNode[QuadTree.MAXIMUM_LEVEL + 1];
+    private QuadTreeNode[] buckets = new QuadTreeNode[1 << 10];
+    private int size;
+
+    public QuadTreeNode leaf(long bits) {
+        var hash = QuadTreeNode.leafHash(bits);
+        var bucket = hash & (buckets.length - 1);
+
+        for (var node = buckets[bucket]; node != null; node = node.next)
+            if (node.isLeaf() && node.bits() == bits)
+                return node;
+
+        return insert(new QuadTreeNode(bits), bucket);
+    }
+
+    public QuadTreeNode node(QuadTreeNode nw, QuadTreeNode ne, QuadTreeNode sw, QuadTreeNode se) {
+        if (nw.level() != ne.level() || nw.level() != sw.level() || nw.level() != se.level())
+            throw new IllegalArgumentException("Quadrants must share a level");
+
+        if (nw.level() >= QuadTree.MAXIMUM_LEVEL)
+            throw new IllegalArgumentException("Quad tree cannot exceed level " + QuadTree.MAXIMUM_LEVEL);
+
+        var hash = QuadTreeNode.nodeHash(nw, ne, sw, se);
+        var bucket = hash & (buckets.length - 1);
+
+        for (var node = buckets[bucket]; node != null; node = node.next)
+            if (node.nw() == nw && node.ne() == ne && node.sw() == sw && node.se() == se)
+                return node;
+
+        return insert(new QuadTreeNode(nw, ne, sw, se), bucket);
+    }
+
+    public QuadTreeNode empty(int level) {
+        if (level < QuadTreeNode.LEAF_LEVEL || level > QuadTree.MAXIMUM_LEVEL)
+            throw new IllegalArgumentException("No quad tree level " + level);
+
+        var empty = emptyNodes[level];
+
+        if (empty == null) {
+            var quadrant = level == QuadTreeNode.LEAF_LEVEL ? null : empty(level - 1);
+            empty = quadrant == null ? leaf(0) : node(quadrant, quadrant, quadrant, quadrant);
+            emptyNodes[level] = empty;
+        }
+
+        return empty;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private QuadTreeNode insert(QuadTreeNode node, int bucket) {
+        node.next = buckets[bucket];
+        buckets[bucket] = node;
+
+        if (++size > buckets.length * LOAD_FACTOR && buckets.length < MAXIMUM_CAPACITY)
+            resize(buckets.length << 1);
+
+        return node;
+    }
+
+    private void resize(int capacity) {
+        var oldBuckets = buckets;
+
+        buckets = new QuadTreeNode[capacity];
+
+        for (var node : oldBuckets)
+            while (node != null) {
+                var next = node.next;
+                var bucket = node.hashCode() & (capacity - 1);
+
+                node.next = buckets[bucket];
+                buckets[bucket] = node;
+                node = next;
+            }
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.robertograham.cellularautomata.parsers.common.snapshot;
+
+final class PatternSnapshotFormat {
+
+    static final byte[] MAGIC = {'C', 'A', 'P', 'S'};
+    static final int VERSION = 1;
+
+    static final int FLAG_STATES = 1;
+    static final int FLAG_BIT_ROWS = 1 << 1;
+
+    static final int KEY_STRING = 0;
+    static final int KEY_ENUM = 1;
+
+    static final int VALUE_STRING = 0;
+    static final int VALUE_LONG = 1;
+
+    private PatternSnapshotFormat() {
+    }
+
+    static long zigZag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    static long unZigZag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
@@ -0,0 +1,333 @@
+package io.github.robertograham.cellularautomata.parsers.common.snapshot;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.common.model.Coordinate;
+import io.github.robertograham.cellularautomata.parsers.common.model.DenseCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.PackedCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ICellularAutomataPatternParser;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParseBudgetExceededException;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParseListener;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParseMetrics;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParsePhase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+import static io.github.robertograham.cellularautomata.parsers.common.snapshot.PatternSnapshotFormat.*;
+
+public class PatternSnapshotReader<T extends CellularAutomataPattern> implements ICellularAutomataPatternParser<T> {
+
+    private static final long UNLIMITED = Long.MAX_VALUE;
+
+    private final Supplier<T> patternFactory;
+    private long cellBudget = UNLIMITED;
+    private long memoryBudget = UNLIMITED;
+    private ParseListener parseListener;
+
+    public PatternSnapshotReader(Supplier<T> patternFactory) {
+        this.patternFactory = patternFactory;
+    }
+
+    @Override
+    public long getCellBudget() {
+        return cellBudget;
+    }
+
+    @Override
+    public void setCellBudget(long cellBudget) {
+        if (cellBudget < 0)
+            throw new IllegalArgumentException("Cell budget must not be negative");
+
+        this.cellBudget = cellBudget;
+    }
+
+    @Override
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    @Override
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0)
+            throw new IllegalArgumentException("Memory budget must not be negative");
+
+        this.memoryBudget = memoryBudget;
+    }
+
+    @Override
+    public ParseListener getParseListener() {
+        return parseListener;
+    }
+
+    @Override
+    public void setParseListener(ParseListener parseListener) {
+        this.parseListener = parseListener;
+    }
+
+    @Override
+    public T parse(InputStream inputStream) {
+        try {
+            return parse(ByteBuffer.wrap(inputStream.readAllBytes()), null);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public T parse(Path path) {
+        try (var fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = fileChannel.size();
+
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("Cannot map a snapshot of " + size + " bytes");
+
+            return parse(fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size), path);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public T parse(ByteBuffer buffer) {
+        return parse(buffer, null);
+    }
+
+    private T parse(ByteBuffer buffer, Path path) {
+        var parseListener = this.parseListener;
+
+        if (parseListener == null)
+            return read(buffer, null);
+
+        var parseMetrics = new ParseMetrics(getClass().getName(), path);
+
+        parseListener.parseStarted(parseMetrics);
+        parseMetrics.enterPhase(ParsePhase.HEADER);
+
+        try {
+            var pattern = read(buffer, parseMetrics);
+
+            parseMetrics.finish();
+            parseListener.parseCompleted(parseMetrics);
+
+            return pattern;
+        } catch (RuntimeException | Error exception) {
+            parseMetrics.finish();
+            parseListener.parseFailed(parseMetrics, exception);
+            throw exception;
+        }
+    }
+
+    private T read(ByteBuffer buffer, ParseMetrics parseMetrics) {
+        buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            return readPattern(buffer, parseMetrics);
+        } catch (BufferUnderflowException exception) {
+            throw new IllegalArgumentException("Snapshot is truncated");
+        } finally {
+            if (parseMetrics != null)
+                parseMetrics.recordIo(buffer.position(), 0);
+        }
+    }
+
+    private T readPattern(ByteBuffer buffer, ParseMetrics parseMetrics) {
+        for (var magicByte : MAGIC)
+            if (buffer.get() != magicByte)
+                throw new IllegalArgumentException("Not a pattern snapshot");
+
+        var version = buffer.get() & 0xFF;
+
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unsupported snapshot version " + version);
+
+        var flags = buffer.get() & 0xFF;
+        var pattern = patternFactory.get();
+        var patternType = readString(buffer);
+
+        if (!patternType.equals(pattern.getClass().getName()))
+            throw new IllegalArgumentException("Snapshot holds a " + patternType + ", not a " + pattern.getClass().getName());
+
+        pattern.setOrigin(new Coordinate(readSignedVarLong(buffer), readSignedVarLong(buffer)));
+        readProperties(pattern, buffer);
+
+        for (var comments = readVarLong(buffer); comments > 0; comments--)
+            pattern.comments().add(readString(buffer));
+
+        if (parseMetrics != null)
+            parseMetrics.enterPhase(ParsePhase.CELLS);
+
+        if ((flags & FLAG_BIT_ROWS) != 0)
+            readBitRows(pattern, buffer, parseMetrics);
+        else
+            readCells(pattern, (flags & FLAG_STATES) != 0, buffer, parseMetrics);
+
+        return pattern;
+    }
+
+    private void readProperties(T pattern, ByteBuffer buffer) {
+        var properties = pattern.properties();
+
+        for (var count = readVarLong(buffer); count > 0; count--) {
+            Object key;
+            Object value;
+
+            switch (buffer.get()) {
+                case KEY_STRING:
+                    key = readString(buffer);
+                    break;
+                case KEY_ENUM:
+                    key = readEnum(pattern, readString(buffer), readString(buffer));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown property key type");
+            }
+
+            switch (buffer.get()) {
+                case VALUE_STRING:
+                    value = readString(buffer);
+                    break;
+                case VALUE_LONG:
+                    value = readSignedVarLong(buffer);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown property value type");
+            }
+
+            properties.put(key, value);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum(T pattern, String enumType, String name) {
+        try {
+            var enumClass = Class.forName(enumType, false, pattern.getClass().getClassLoader());
+
+            if (!enumClass.isEnum())
+                throw new IllegalArgumentException(enumType + " is not an enum");
+
+            return Enum.valueOf((Class) enumClass, name);
+        } catch (ClassNotFoundException exception) {
+            throw new IllegalArgumentException("Unknown property key type " + enumType, exception);
+        }
+    }
+
+    private void readBitRows(T pattern, ByteBuffer buffer, ParseMetrics parseMetrics) {
+        var originX = readSignedVarLong(buffer);
+        var originY = readSignedVarLong(buffer);
+        var width = readVarLong(buffer);
+        var height = readVarLong(buffer);
+
+        if (DenseCellStore.bytesFor(width, height) > buffer.remaining())
+            throw new IllegalArgumentException("Snapshot bit rows are larger than the snapshot");
+
+        if (DenseCellStore.bytesFor(width, height) > memoryBudget)
+            throw new ParseBudgetExceededException("A " + width + "x" + height + " dense cell store exceeds the memory budget of " + memoryBudget + " bytes");
+
+        var denseCellStore = new DenseCellStore(originX, originY, width, height);
+
+        for (var row = 0L; row < denseCellStore.height(); row++) {
+            for (var wordIndex = 0; wordIndex < denseCellStore.wordsPerRow(); wordIndex++)
+                denseCellStore.setWord(row, wordIndex, buffer.getLong());
+
+            if (parseMetrics != null)
+                parseMetrics.recordRun(denseCellStore.rowPopulation(row));
+        }
+
+        checkCellBudget(denseCellStore.size());
+
+        pattern.setCellStore(denseCellStore);
+    }
+
+    private void readCells(T pattern, boolean states, ByteBuffer buffer, ParseMetrics parseMetrics) {
+        var remaining = readVarLong(buffer);
+
+        if (remaining < 0 || remaining > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Snapshot cell count is out of range");
+
+        if (remaining > buffer.remaining())
+            throw new IllegalArgumentException("Snapshot cell count is larger than the snapshot");
+
+        checkCellBudget(remaining);
+
+        if (PackedCellStore.bytesFor((int) remaining) > memoryBudget)
+            throw new ParseBudgetExceededException("Pattern has " + remaining + " cells, exceeding the memory budget of " + memoryBudget + " bytes");
+
+        var cellStore = new PackedCellStore((int) remaining);
+        var xs = new long[16];
+        var y = 0L;
+
+        while (remaining > 0) {
+            y += readSignedVarLong(buffer);
+
+            var rowLength = readVarLong(buffer);
+
+            if (rowLength <= 0 || rowLength > remaining)
+                throw new IllegalArgumentException("Snapshot row length is out of range");
+
+            if (rowLength > xs.length)
+                xs = new long[(int) rowLength];
+
+            var x = readSignedVarLong(buffer);
+
+            xs[0] = x;
+
+            for (var cell = 1; cell < rowLength; cell++)
+                xs[cell] = x += readVarLong(buffer) + 1;
+
+            for (var cell = 0; cell < rowLength; cell++)
+                cellStore.add(xs[cell], y, states ? readVarLong(buffer) : 1);
+
+            if (parseMetrics != null)
+                parseMetrics.recordRun(rowLength);
+
+            remaining -= rowLength;
+        }
+
+        pattern.setCellStore(cellStore);
+    }
+
+    private void checkCellBudget(long cells) {
+        if (cells > cellBudget)
+            throw new ParseBudgetExceededException("Pattern has " + cells + " cells, exceeding the cell budget of " + cellBudget);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var length = readVarLong(buffer);
+
+        if (length < 0 || length > buffer.remaining())
+            throw new IllegalArgumentException("Snapshot string length is out of range");
+
+        var bytes = new byte[(int) length];
+
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readSignedVarLong(ByteBuffer buffer) {
+        return unZigZag(readVarLong(buffer));
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        var value = 0L;
+
+        for (var shift = 0; shift < Long.SIZE; shift += 7) {
+            var encodedByte = buffer.get();
+
+            value |= (long) (encodedByte & 0x7F) << shift;
+
+            if (encodedByte >= 0)
+                return value;
+        }
+
+        throw new IllegalArgumentException("Snapshot varint is too long");
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.robertograham.cellularautomata.parsers.common.snapshot;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteOutput;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.common.model.DenseCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.RowSortedCells;
+import io.github.robertograham.cellularautomata.parsers.common.writer.concrete.CellularAutomataPatternWriter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static io.github.robertograham.cellularautomata.parsers.common.snapshot.PatternSnapshotFormat.*;
+
+public class PatternSnapshotWriter extends CellularAutomataPatternWriter<CellularAutomataPattern> {
+
+    @Override
+    protected void write(CellularAutomataPattern pattern, ByteOutput byteOutput) throws IOException {
+        var cellStore = pattern.cellStore();
+        var denseCellStore = cellStore instanceof DenseCellStore ? (DenseCellStore) cellStore : null;
+        var cells = denseCellStore == null ? RowSortedCells.of(cellStore) : null;
+        var flags = 0;
+
+        if (denseCellStore != null)
+            flags |= FLAG_BIT_ROWS;
+        else if (hasStates(cells))
+            flags |= FLAG_STATES;
+
+        byteOutput.write(MAGIC);
+        byteOutput.write((byte) VERSION);
+        byteOutput.write((byte) flags);
+        writeString(pattern.getClass().getName(), byteOutput);
+        writeSignedVarLong(pattern.origin().x(), byteOutput);
+        writeSignedVarLong(pattern.origin().y(), byteOutput);
+        writeProperties(pattern, byteOutput);
+        writeVarLong(pattern.comments().size(), byteOutput);
+
+        for (var comment : pattern.comments())
+            writeString(comment, byteOutput);
+
+        if (denseCellStore != null)
+            writeBitRows(denseCellStore, byteOutput);
+        else
+            writeCells(cells, (flags & FLAG_STATES) != 0, byteOutput);
+    }
+
+    private void writeProperties(CellularAutomataPattern pattern, ByteOutput byteOutput) throws IOException {
+        var properties = pattern.properties();
+
+        writeVarLong(properties.size(), byteOutput);
+
+        for (Map.Entry<Object, Object> property : properties.entrySet()) {
+            var key = property.getKey();
+            var value = property.getValue();
+
+            if (key instanceof String) {
+                byteOutput.write((byte) KEY_STRING);
+                writeString((String) key, byteOutput);
+            } else if (key instanceof Enum) {
+                byteOutput.write((byte) KEY_ENUM);
+                writeString(((Enum<?>) key).getDeclaringClass().getName(), byteOutput);
+                writeString(((Enum<?>) key).name(), byteOutput);
+            } else
+                throw new IllegalArgumentException("Cannot write property key of type " + key.getClass().getName());
+
+            if (value instanceof String) {
+                byteOutput.write((byte) VALUE_STRING);
+                writeString((String) value, byteOutput);
+            } else if (value instanceof Long) {
+                byteOutput.write((byte) VALUE_LONG);
+                writeSignedVarLong((Long) value, byteOutput);
+            } else
+                throw new IllegalArgumentException("Cannot write property value of type " + value.getClass().getName());
+        }
+    }
+
+    private void writeBitRows(DenseCellStore denseCellStore, ByteOutput byteOutput) throws IOException {
+        writeSignedVarLong(denseCellStore.originX(), byteOutput);
+        writeSignedVarLong(denseCellStore.originY(), byteOutput);
+        writeVarLong(denseCellStore.width(), byteOutput);
+        writeVarLong(denseCellStore.height(), byteOutput);
+
+        for (var row = 0L; row < denseCellStore.height(); row++)
+            for (var wordIndex = 0; wordIndex < denseCellStore.wordsPerRow(); wordIndex++) {
+                var word = denseCellStore.word(row, wordIndex);
+
+                for (var shift = 0; shift < Long.SIZE; shift += Byte.SIZE)
+                    byteOutput.write((byte) (word >>> shift));
+            }
+    }
+
+    private void writeCells(RowSortedCells cells, boolean states, ByteOutput byteOutput) throws IOException {
+        writeVarLong(cells.size(), byteOutput);
+
+        var previousY = 0L;
+
+        for (var index = 0; index < cells.size(); ) {
+            var rowEnd = cells.rowEnd(index);
+            var y = cells.y(index);
+
+            writeSignedVarLong(y - previousY, byteOutput);
+            writeVarLong(rowEnd - index, byteOutput);
+            writeSignedVarLong(cells.x(index), byteOutput);
+
+            for (var cell = index + 1; cell < rowEnd; cell++)
+                writeVarLong(cells.x(cell) - cells.x(cell - 1) - 1, byteOutput);
+
+            if (states)
+                for (var cell = index; cell < rowEnd; cell++)
+                    writeVarLong(cells.state(cell), byteOutput);
+
+            previousY = y;
+            index = rowEnd;
+        }
+    }
+
+    private static boolean hasStates(RowSortedCells cells) {
+        for (var index = 0; index < cells.size(); index++)
+            if (cells.state(index) != 1)
+                return true;
+
+        return false;
+    }
+
+    private static void writeString(String value, ByteOutput byteOutput) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        writeVarLong(bytes.length, byteOutput);
+        byteOutput.write(bytes);
+    }
+
+    private static void writeSignedVarLong(long value, ByteOutput byteOutput) throws IOException {
+        writeVarLong(zigZag(value), byteOutput);
+    }
+
+    private static void writeVarLong(long value, ByteOutput byteOutput) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            byteOutput.write((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+
+        byteOutput.write((byte) value);
+    }
+}
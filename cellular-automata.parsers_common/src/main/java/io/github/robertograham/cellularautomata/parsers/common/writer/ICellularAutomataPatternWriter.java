@@ -0,0 +1,16 @@
+package io.github.robertograham.cellularautomata.parsers.common.writer;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+public interface ICellularAutomataPatternWriter<T extends CellularAutomataPattern> {
+
+    void write(T pattern, OutputStream outputStream);
+
+    void write(T pattern, WritableByteChannel channel);
+
+    void write(T pattern, Path path);
+}
@@ -0,0 +1,46 @@
+package io.github.robertograham.cellularautomata.parsers.common.writer.concrete;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteOutput;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.common.writer.ICellularAutomataPatternWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public abstract class CellularAutomataPatternWriter<T extends CellularAutomataPattern> implements ICellularAutomataPatternWriter<T> {
+
+    @Override
+    public void write(T pattern, OutputStream outputStream) {
+        writeAndFlush(pattern, ByteOutput.of(outputStream));
+    }
+
+    @Override
+    public void write(T pattern, WritableByteChannel channel) {
+        writeAndFlush(pattern, ByteOutput.of(channel));
+    }
+
+    @Override
+    public void write(T pattern, Path path) {
+        try (var fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(pattern, fileChannel);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    protected abstract void write(T pattern, ByteOutput byteOutput) throws IOException;
+
+    private void writeAndFlush(T pattern, ByteOutput byteOutput) {
+        try {
+            write(pattern, byteOutput);
+            byteOutput.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
@@ -1,4 +1,13 @@
 module io.github.robertograham.cellularautomata.parsers.common {
+    exports io.github.robertograham.cellularautomata.parsers.common.ingest;
+    exports io.github.robertograham.cellularautomata.parsers.common.io;
     exports io.github.robertograham.cellularautomata.parsers.common.model;
+    exports io.github.robertograham.cellularautomata.parsers.common.parser;
     exports io.github.robertograham.cellularautomata.parsers.common.parser.concrete;
+    exports io.github.robertograham.cellularautomata.parsers.common.quadtree;
+    exports io.github.robertograham.cellularautomata.parsers.common.snapshot;
+    exports io.github.robertograham.cellularautomata.parsers.common.writer;
+    exports io.github.robertograham.cellularautomata.parsers.common.writer.concrete;
+
+    uses io.github.robertograham.cellularautomata.parsers.common.parser.ICellularAutomataPatternParserProvider;
 }
@@ -0,0 +1,75 @@
+package io.github.robertograham.cellularautomata.parsers.jfr;
+
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParseListener;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParseMetrics;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParsePhase;
+
+public class JfrParseListener implements ParseListener {
+
+    private final ParseListener delegate;
+    private final ThreadLocal<PatternParseEvent> events = new ThreadLocal<>();
+
+    public JfrParseListener() {
+        this(null);
+    }
+
+    public JfrParseListener(ParseListener delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void parseStarted(ParseMetrics parseMetrics) {
+        var event = new PatternParseEvent();
+
+        if (event.isEnabled()) {
+            event.begin();
+            events.set(event);
+        }
+
+        if (delegate != null)
+            delegate.parseStarted(parseMetrics);
+    }
+
+    @Override
+    public void parseCompleted(ParseMetrics parseMetrics) {
+        commit(parseMetrics, null);
+
+        if (delegate != null)
+            delegate.parseCompleted(parseMetrics);
+    }
+
+    @Override
+    public void parseFailed(ParseMetrics parseMetrics, Throwable failure) {
+        commit(parseMetrics, failure);
+
+        if (delegate != null)
+            delegate.parseFailed(parseMetrics, failure);
+    }
+
+    private void commit(ParseMetrics parseMetrics, Throwable failure) {
+        var event = events.get();
+
+        if (event == null)
+            return;
+
+        events.remove();
+        event.end();
+
+        if (!event.shouldCommit())
+            return;
+
+        event.parser = parseMetrics.parser();
+        event.path = parseMetrics.path() == null ? null : parseMetrics.path().toString();
+        event.succeeded = failure == null;
+        event.failure = failure == null ? null : failure.toString();
+        event.bytesRead = parseMetrics.bytesRead();
+        event.lines = parseMetrics.lines();
+        event.cells = parseMetrics.cells();
+        event.runs = parseMetrics.runs();
+        event.ioNanos = parseMetrics.nanos(ParsePhase.IO);
+        event.headerNanos = parseMetrics.nanos(ParsePhase.HEADER);
+        event.cellNanos = parseMetrics.nanos(ParsePhase.CELLS);
+        event.compactionNanos = parseMetrics.nanos(ParsePhase.COMPACTION);
+        event.commit();
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.robertograham.cellularautomata.parsers.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("io.github.robertograham.cellularautomata.PatternParse")
+@Label("Pattern Parse")
+@Category({"Cellular Automata", "Parsers"})
+@Description("A single pattern parse with its I/O, line and cell counters and per-phase timings")
+final class PatternParseEvent extends Event {
+
+    @Label("Parser")
+    String parser;
+
+    @Label("Path")
+    String path;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Label("Failure")
+    String failure;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Lines")
+    long lines;
+
+    @Label("Cells")
+    long cells;
+
+    @Label("Runs")
+    long runs;
+
+    @Label("I/O Time")
+    @Timespan
+    long ioNanos;
+
+    @Label("Header Time")
+    @Timespan
+    long headerNanos;
+
+    @Label("Cell Decoding Time")
+    @Timespan
+    long cellNanos;
+
+    @Label("Compaction Time")
+    @Timespan
+    long compactionNanos;
+}
@@ -0,0 +1,5 @@
+module io.github.robertograham.cellularautomata.parsers.jfr {
+    requires io.github.robertograham.cellularautomata.parsers.common;
+    requires jdk.jfr;
+    exports io.github.robertograham.cellularautomata.parsers.jfr;
+}
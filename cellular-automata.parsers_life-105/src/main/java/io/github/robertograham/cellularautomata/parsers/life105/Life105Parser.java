@@ -1,126 +1,210 @@
 package io.github.robertograham.cellularautomata.parsers.life105;
 
-import io.github.robertograham.cellularautomata.parsers.common.model.Cell;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteInput;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteSource;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
 import io.github.robertograham.cellularautomata.parsers.common.model.Coordinate;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParsePhase;
 import io.github.robertograham.cellularautomata.parsers.common.parser.concrete.CellularAutomataPatternParser;
 
-import java.io.InputStream;
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class Life105Parser extends CellularAutomataPatternParser<Life105Pattern> {
 
     private static final String REQUIRED_HEADER_REGEX = "#Life\\s+1\\.05";
-    private static final String NORMAL_RULES_REGEX = "#N";
-    private static final String RULES_REGEX = "#R\\s+[0-8]+/[0-8]+";
-    private static final String COMMENT_REGEX = "#D(|(\\s+.*))";
-    private static final Pattern CELL_BLOCK_PATTERN = Pattern.compile("(#P\\s+(-?[0-9]+)\\s+(-?[0-9]+))|([.*]+)");
+    private static final String VERSION = "1.05";
 
     @Override
-    public Life105Pattern parse(InputStream inputStream) {
-        List<String> lines = readInputStreamToStringList(inputStream);
+    protected Life105Pattern parse(ByteInput byteInput) throws IOException {
+        ByteLine line = new ByteLine();
 
-        List<String> trimmedNonEmptyLines = lines.stream()
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(line -> !line.isEmpty())
-                .collect(Collectors.toList());
+        do
+            if (!byteInput.readLine(line))
+                throw new IllegalArgumentException("No important lines");
+        while (line.trim().isEmpty());
 
-        if (trimmedNonEmptyLines.isEmpty())
-            throw new IllegalArgumentException("No important lines");
-
-        checkHeader(trimmedNonEmptyLines.get(0));
+        checkHeader(line);
 
         Life105Pattern life105Pattern = new Life105Pattern();
 
-        Optional.ofNullable(getRule(trimmedNonEmptyLines)).ifPresent(life105Pattern::setRule);
-        life105Pattern.comments().addAll(getComments(trimmedNonEmptyLines));
-        extractAndSetLiveCells(trimmedNonEmptyLines, life105Pattern);
+        if (isLazyCells()) {
+            ByteSource byteSource = byteInput.retainRemaining();
+
+            try (ByteInput metadataInput = byteSource.open()) {
+                extractAndSetRuleAndCommentsAndLiveCells(metadataInput, line, life105Pattern, false);
+            }
+
+            loadCellsLazily(life105Pattern, byteSource, this::decodeCells);
+        } else {
+            enterPhase(ParsePhase.CELLS);
+            extractAndSetRuleAndCommentsAndLiveCells(byteInput, line, life105Pattern, true);
+        }
 
         return life105Pattern;
     }
 
-    private void checkHeader(String header) {
-        if (!header.matches(REQUIRED_HEADER_REGEX))
-            throw new IllegalArgumentException("Header did not match \"" + REQUIRED_HEADER_REGEX + "\"");
+    private void decodeCells(ByteInput byteInput, Life105Pattern life105Pattern) throws IOException {
+        Life105Pattern decodedPattern = new Life105Pattern();
+
+        decodedPattern.setCellStore(life105Pattern.cellStore());
+        extractAndSetRuleAndCommentsAndLiveCells(byteInput, new ByteLine(), decodedPattern, true);
+        life105Pattern.replaceCellStore(decodedPattern.cellStore());
     }
 
-    private String getRule(List<String> lines) {
-        String normalRules = lines.stream()
-                .filter(line -> line.matches(NORMAL_RULES_REGEX))
-                .findFirst()
-                .orElse(null);
+    static boolean isHeader(ByteLine line) {
+        return isLifeHeader(line, VERSION);
+    }
 
-        String rules = lines.stream()
-                .filter(line -> line.matches(RULES_REGEX))
-                .findFirst()
-                .orElse(null);
+    private void checkHeader(ByteLine line) {
+        if (!isHeader(line))
+            throw new IllegalArgumentException("Header did not match \"" + REQUIRED_HEADER_REGEX + "\"");
+    }
 
-        if (normalRules == null && rules == null)
+    private String getRule(boolean normalRules, String rules) {
+        if (!normalRules && rules == null)
             return null;
-        if (normalRules != null && rules != null)
+        if (normalRules && rules != null)
             throw new IllegalArgumentException("Both #N and #R lines found");
-        if (normalRules != null)
+        if (normalRules)
             return "23/3";
 
         return rules.substring(3).trim();
     }
 
-    private List<String> getComments(List<String> lines) {
-        return lines.stream()
-                .filter(line -> line.matches(COMMENT_REGEX))
-                .map(line -> line.substring(2).trim())
-                .collect(Collectors.toList());
+    private boolean isCellBlockLine(ByteLine line) {
+        for (int i = 0; i < line.length(); i++)
+            if (line.byteAt(i) != '.' && line.byteAt(i) != '*')
+                return false;
+
+        return true;
+    }
+
+    private boolean isRulesLine(ByteLine line) {
+        if (!isDirective(line, 'R'))
+            return false;
+
+        line.rewind().skip(2);
+
+        return line.skipWhitespace() && skipNeighbourCounts(line) && line.skipIf('/') && skipNeighbourCounts(line) && line.isAtEnd();
+    }
+
+    private boolean skipNeighbourCounts(ByteLine line) {
+        int counts = 0;
+
+        while (line.skipIfBetween('0', '8'))
+            counts++;
+
+        return counts > 0;
+    }
+
+    private boolean isCommentLine(ByteLine line) {
+        if (!isDirective(line, 'D'))
+            return false;
+
+        line.rewind().skip(2);
+
+        return line.isAtEnd() || line.skipWhitespace();
+    }
+
+    private void addCellBlockLine(ByteLine line, long x, long y, CellSink cellSink) {
+        while (!line.isAtEnd()) {
+            x += line.skipRun('.');
+
+            int run = line.skipRun('*');
+
+            if (run > 0)
+                cellSink.acceptRun(x, y, run, 1);
+
+            x += run;
+        }
     }
 
-    private Coordinate getCoordinateFromCellBlockHeader(String cellBlockHeader) {
-        Matcher matcher = CELL_BLOCK_PATTERN.matcher(cellBlockHeader);
+    private long countLiveCells(ByteInput byteInput) throws IOException {
+        ByteBuffer buffer = bufferedRemainder(byteInput);
 
-        if (matcher.find())
-            return new Coordinate(
-                    Long.parseLong(matcher.group(2)),
-                    Long.parseLong(matcher.group(3))
-            );
+        if (buffer == null)
+            return 0;
 
-        throw new IllegalArgumentException("Impossible for this to be thrown");
+        long cells = 0;
+
+        for (int i = buffer.position(); i < buffer.limit(); i++)
+            if (buffer.get(i) == '*')
+                cells++;
+
+        return cells;
     }
 
-    private void extractAndSetLiveCells(List<String> lines, Life105Pattern life105Pattern) {
-        List<String> encodedCellDataLines = lines.stream()
-                .filter(line -> line.matches(CELL_BLOCK_PATTERN.pattern()))
-                .collect(Collectors.toList());
-
-        Set<Cell> cells = new HashSet<>();
-        Coordinate coordinate = new Coordinate(0, 0);
-        Long minX = null, minY = null, maxX = null, maxY = null;
-
-        for (String encodedCellDataLine : encodedCellDataLines)
-            if (encodedCellDataLine.startsWith("#")) {
-                coordinate = getCoordinateFromCellBlockHeader(encodedCellDataLine);
-                long x = coordinate.x(), y = coordinate.y();
-                minX = minX == null ? x : x < minX ? x : minX;
-                minY = minY == null ? y : y < minY ? y : minY;
-            } else {
-                for (String statusRun : encodedCellDataLine.split("(?<=(.))(?!\\1)")) {
-                    if (statusRun.startsWith("*"))
-                        for (int i = 0; i < statusRun.length(); i++)
-                            cells.add(new Cell(coordinate.plusToX(i), 1));
-                    coordinate = coordinate.plusToX(statusRun.length());
+    private void extractAndSetRuleAndCommentsAndLiveCells(ByteInput byteInput, ByteLine line, Life105Pattern life105Pattern, boolean decodeCells) throws IOException {
+        CellSink cellSink = !decodeCells ? null : presizesCellStore() ? cellSink(life105Pattern, countLiveCells(byteInput)) : cellSink(life105Pattern);
+        boolean normalRules = false;
+        String rules = null;
+        long x = 0, y = 0;
+        boolean anyCellBlockHeader = false, anyCellBlockLine = false;
+        long minX = 0, minY = 0, maxX = 0, maxY = 0;
+        long cellMinX = Long.MAX_VALUE, cellMinY = Long.MAX_VALUE, cellMaxX = Long.MIN_VALUE, cellMaxY = Long.MIN_VALUE;
+
+        while (byteInput.readLine(line)) {
+            if (line.trim().isEmpty())
+                continue;
+
+            if (line.byteAt(0) == '#') {
+                if (isDirective(line, 'P')) {
+                    Coordinate coordinate = directiveCoordinate(line);
+
+                    if (coordinate != null) {
+                        x = coordinate.x();
+                        y = coordinate.y();
+                        minX = anyCellBlockHeader ? Math.min(minX, x) : x;
+                        minY = anyCellBlockHeader ? Math.min(minY, y) : y;
+                        anyCellBlockHeader = true;
+                    }
+                    continue;
                 }
-                long x = coordinate.x(), y = coordinate.y() + 1;
-                maxX = maxX == null ? x : x > maxX ? x : maxX;
-                maxY = maxY == null ? y : y > maxY ? y : maxY;
-                coordinate = new Coordinate(x - encodedCellDataLine.length(), y);
+
+                if (line.length() == 2 && isDirective(line, 'N'))
+                    normalRules = true;
+                else if (isRulesLine(line)) {
+                    if (rules == null)
+                        rules = line.toString();
+                } else if (isCommentLine(line))
+                    life105Pattern.comments().add(directiveText(line));
+                continue;
             }
 
-        minX = minX != null ? minX : 0;
-        minY = minY != null ? minY : 0;
+            if (!isCellBlockLine(line))
+                continue;
+
+            if (decodeCells)
+                addCellBlockLine(line.rewind(), x, y, cellSink);
+
+            long nextX = x + line.length(), nextY = y + 1;
+            maxX = anyCellBlockLine ? Math.max(maxX, nextX) : nextX;
+            maxY = anyCellBlockLine ? Math.max(maxY, nextY) : nextY;
+            anyCellBlockLine = true;
+            cellMinX = Math.min(cellMinX, x);
+            cellMinY = Math.min(cellMinY, y);
+            cellMaxX = Math.max(cellMaxX, nextX);
+            cellMaxY = Math.max(cellMaxY, nextY);
+            y = nextY;
+        }
 
-        life105Pattern.setWidth((maxX != null ? maxX : minX) - minX);
-        life105Pattern.setHeight((maxY != null ? maxY : minY) - minY);
+        String rule = getRule(normalRules, rules);
+
+        if (rule != null)
+            life105Pattern.setRule(rule);
+
+        if (!anyCellBlockLine) {
+            maxX = minX;
+            maxY = minY;
+        }
+
+        life105Pattern.setWidth(maxX - minX);
+        life105Pattern.setHeight(maxY - minY);
         life105Pattern.setOrigin(new Coordinate(minX, minY));
-        life105Pattern.cells().addAll(cells);
+
+        if (decodeCells && anyCellBlockLine)
+            compactCellStore(life105Pattern, cellMinX, cellMinY, cellMaxX - cellMinX, cellMaxY - cellMinY);
     }
 }
@@ -1,11 +1,12 @@
 package io.github.robertograham.cellularautomata.parsers.life105;
 
 import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.common.model.DimensionedPattern;
 
-public class Life105Pattern extends CellularAutomataPattern {
+public class Life105Pattern extends CellularAutomataPattern implements DimensionedPattern {
 
     public String getRule() {
-        return (String) properties().getOrDefault(PropertyKey.RULE, null);
+        return properties().getProperty(PropertyKey.RULE.name());
     }
 
     public void setRule(String rule) {
@@ -0,0 +1,73 @@
+package io.github.robertograham.cellularautomata.parsers.life105;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteOutput;
+import io.github.robertograham.cellularautomata.parsers.common.model.RowSortedCells;
+import io.github.robertograham.cellularautomata.parsers.common.writer.concrete.CellularAutomataPatternWriter;
+
+import java.io.IOException;
+
+public class Life105Writer extends CellularAutomataPatternWriter<Life105Pattern> {
+
+    private static final int MAXIMUM_LINE_LENGTH = 80;
+    private static final String NORMAL_RULES = "23/3";
+
+    @Override
+    protected void write(Life105Pattern life105Pattern, ByteOutput byteOutput) throws IOException {
+        byteOutput.write("#Life 1.05");
+        byteOutput.newLine();
+
+        for (String comment : life105Pattern.comments()) {
+            byteOutput.write(comment.isEmpty() ? "#D" : "#D ");
+            byteOutput.write(comment);
+            byteOutput.newLine();
+        }
+
+        String rule = life105Pattern.getRule();
+
+        if (NORMAL_RULES.equals(rule)) {
+            byteOutput.write("#N");
+            byteOutput.newLine();
+        } else if (rule != null) {
+            byteOutput.write("#R ");
+            byteOutput.write(rule);
+            byteOutput.newLine();
+        }
+
+        writeCellBlocks(RowSortedCells.of(life105Pattern.cellStore()), byteOutput);
+    }
+
+    private void writeCellBlocks(RowSortedCells cells, ByteOutput byteOutput) throws IOException {
+        boolean blockOpen = false;
+        long blockX = 0, nextRow = 0;
+
+        for (int index = 0; index < cells.size(); ) {
+            long y = cells.y(index);
+            int rowEnd = cells.rowEnd(index);
+            boolean continued = blockOpen && y == nextRow
+                    && cells.x(index) >= blockX && cells.x(index) - blockX < MAXIMUM_LINE_LENGTH;
+
+            while (index < rowEnd) {
+                if (!continued) {
+                    blockX = cells.x(index);
+                    blockOpen = true;
+                    byteOutput.write("#P ");
+                    byteOutput.write(blockX);
+                    byteOutput.write((byte) ' ');
+                    byteOutput.write(y);
+                    byteOutput.newLine();
+                }
+
+                continued = false;
+
+                for (long x = blockX; index < rowEnd && cells.x(index) - blockX < MAXIMUM_LINE_LENGTH; index++) {
+                    byteOutput.write((byte) '.', cells.x(index) - x);
+                    byteOutput.write((byte) '*');
+                    x = cells.x(index) + 1;
+                }
+
+                byteOutput.newLine();
+                nextRow = y + 1;
+            }
+        }
+    }
+}
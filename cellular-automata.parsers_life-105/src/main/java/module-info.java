@@ -1,4 +1,7 @@
 module io.github.robertograham.cellularautomata.parsers.life105 {
     requires io.github.robertograham.cellularautomata.parsers.common;
     exports io.github.robertograham.cellularautomata.parsers.life105;
+
+    provides io.github.robertograham.cellularautomata.parsers.common.parser.ICellularAutomataPatternParserProvider
+            with io.github.robertograham.cellularautomata.parsers.life105.Life105ParserProvider;
 }
@@ -0,0 +1,149 @@
+package io.github.robertograham.cellularautomata.parsers.life106;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteInput;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+final class Life106ParallelReader {
+
+    private static final int MINIMUM_CHUNK_SIZE = 1 << 16;
+    private static final int MAXIMUM_CHUNK_SIZE = 1 << 22;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ForkJoinPool forkJoinPool;
+    private long minX = Long.MAX_VALUE;
+    private long minY = Long.MAX_VALUE;
+    private long maxX = Long.MIN_VALUE;
+    private long maxY = Long.MIN_VALUE;
+    private List<Chunk> chunks;
+
+    Life106ParallelReader(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    void read(ByteBuffer data) {
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+        int from = data.position();
+        int limit = data.limit();
+        long targetChunks = (long) forkJoinPool.getParallelism() * CHUNKS_PER_THREAD;
+        int chunkSize = (int) Math.max(MINIMUM_CHUNK_SIZE, Math.min(MAXIMUM_CHUNK_SIZE, (limit - from) / targetChunks));
+
+        while (from < limit) {
+            int to = limit - from > chunkSize ? from + chunkSize : limit;
+
+            while (to < limit && data.get(to - 1) != '\n')
+                to++;
+
+            ByteBuffer chunk = data.duplicate();
+            chunk.limit(to).position(from);
+            tasks.add(forkJoinPool.submit(() -> Chunk.parse(chunk)));
+            from = to;
+        }
+
+        chunks = new ArrayList<>(tasks.size());
+
+        for (ForkJoinTask<Chunk> task : tasks) {
+            Chunk chunk = task.join();
+
+            if (chunk.size == 0)
+                continue;
+
+            chunks.add(chunk);
+            minX = Math.min(minX, chunk.minX);
+            minY = Math.min(minY, chunk.minY);
+            maxX = Math.max(maxX, chunk.maxX);
+            maxY = Math.max(maxY, chunk.maxY);
+        }
+    }
+
+    long cellCount() {
+        long cellCount = 0;
+
+        for (Chunk chunk : chunks)
+            cellCount += chunk.size >> 1;
+
+        return cellCount;
+    }
+
+    void forEachCell(CellSink cellSink) {
+        for (Chunk chunk : chunks)
+            for (int index = 0; index < chunk.size; index += 2)
+                cellSink.accept(chunk.coordinates[index], chunk.coordinates[index + 1], 1);
+    }
+
+    long minX() {
+        return minX;
+    }
+
+    long minY() {
+        return minY;
+    }
+
+    long maxX() {
+        return maxX;
+    }
+
+    long maxY() {
+        return maxY;
+    }
+
+    private static final class Chunk {
+
+        private long[] coordinates = new long[256];
+        private int size;
+        private long minX = Long.MAX_VALUE;
+        private long minY = Long.MAX_VALUE;
+        private long maxX = Long.MIN_VALUE;
+        private long maxY = Long.MIN_VALUE;
+
+        private static Chunk parse(ByteBuffer data) {
+            Chunk chunk = new Chunk();
+            ByteInput byteInput = ByteInput.of(data);
+            ByteLine line = new ByteLine();
+
+            try {
+                while (byteInput.readLine(line)) {
+                    line.trim();
+
+                    if (!line.hasNextLong())
+                        continue;
+
+                    long x = line.nextLong();
+
+                    if (!line.skipWhitespace() || !line.hasNextLong())
+                        continue;
+
+                    long y = line.nextLong();
+
+                    if (line.isAtEnd())
+                        chunk.add(x, y);
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+
+            return chunk;
+        }
+
+        private void add(long x, long y) {
+            if (size == coordinates.length)
+                coordinates = Arrays.copyOf(coordinates, size << 1);
+
+            coordinates[size++] = x;
+            coordinates[size++] = y;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x + 1);
+            maxY = Math.max(maxY, y + 1);
+        }
+    }
+}
@@ -1,86 +1,147 @@
 package io.github.robertograham.cellularautomata.parsers.life106;
 
-import io.github.robertograham.cellularautomata.parsers.common.model.Cell;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteInput;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
 import io.github.robertograham.cellularautomata.parsers.common.model.Coordinate;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParsePhase;
 import io.github.robertograham.cellularautomata.parsers.common.parser.concrete.CellularAutomataPatternParser;
 
-import java.io.InputStream;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class Life106Parser extends CellularAutomataPatternParser<Life106Pattern> {
 
     private static final String REQUIRED_HEADER_REGEX = "#Life\\s+1\\.06";
-    private static final Pattern COORDINATE_LINE_PATTERN = Pattern.compile("(-?[0-9]+)\\s+(-?[0-9]+)");
+    private static final String VERSION = "1.06";
 
     @Override
-    public Life106Pattern parse(InputStream inputStream) {
-        List<String> lines = readInputStreamToStringList(inputStream);
+    protected Life106Pattern parse(ByteInput byteInput) throws IOException {
+        ByteLine line = new ByteLine();
 
-        List<String> trimmedNonEmptyLines = lines.stream()
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(line -> !line.isEmpty())
-                .collect(Collectors.toList());
+        do
+            if (!byteInput.readLine(line))
+                throw new IllegalArgumentException("No important lines");
+        while (line.trim().isEmpty());
 
-        if (trimmedNonEmptyLines.isEmpty())
-            throw new IllegalArgumentException("No important lines");
-
-        checkHeader(trimmedNonEmptyLines.get(0));
+        checkHeader(line);
 
         Life106Pattern life106Pattern = new Life106Pattern();
 
-        extractAndSetLiveCells(trimmedNonEmptyLines, life106Pattern);
+        extractComments(byteInput, line, life106Pattern);
+        enterPhase(ParsePhase.CELLS);
+        extractAndSetLiveCells(byteInput, line, life106Pattern);
 
         return life106Pattern;
     }
 
-    private void checkHeader(String header) {
-        if (!header.matches(REQUIRED_HEADER_REGEX))
+    static boolean isHeader(ByteLine line) {
+        return isLifeHeader(line, VERSION);
+    }
+
+    private void checkHeader(ByteLine line) {
+        if (!isHeader(line))
             throw new IllegalArgumentException("Header did not match \"" + REQUIRED_HEADER_REGEX + "\"");
     }
 
-    private void extractAndSetLiveCells(List<String> lines, Life106Pattern life106Pattern) {
-        Set<String> coordinateLines = lines.stream()
-                .filter(line -> line.matches(COORDINATE_LINE_PATTERN.pattern()))
-                .collect(Collectors.toSet());
-
-        Set<Cell> cells = new HashSet<>();
-        Long minX = null, minY = null, maxX = null, maxY = null;
-
-        for (String coordinateLine : coordinateLines) {
-            Cell cell = new Cell(getCoordinateFromCoordinateLine(coordinateLine), 1);
-            cells.add(cell);
-            long x = cell.coordinate().x(), y = cell.coordinate().y(), nextX = x + 1, nextY = y + 1;
-            minX = minX == null ? x : x < minX ? x : minX;
-            minY = minY == null ? y : y < minY ? y : minY;
-            maxX = maxX == null ? nextX : nextX > maxX ? nextX : maxX;
-            maxY = maxY == null ? nextY : nextY > maxY ? nextY : maxY;
+    private void extractComments(ByteInput byteInput, ByteLine line, Life106Pattern life106Pattern) throws IOException {
+        while (nextLineIsDirective(byteInput) && byteInput.readLine(line))
+            if (isDirective(line.trim(), 'D'))
+                life106Pattern.comments().add(directiveText(line));
+    }
+
+    private static boolean nextLineIsDirective(ByteInput byteInput) throws IOException {
+        if (!byteInput.buffer().hasRemaining() && !byteInput.fill())
+            return false;
+
+        ByteBuffer buffer = byteInput.buffer();
+
+        return buffer.get(buffer.position()) == '#';
+    }
+
+    private void extractAndSetLiveCells(ByteInput byteInput, ByteLine line, Life106Pattern life106Pattern) throws IOException {
+        ByteBuffer cellData = readFullyIfParallel(byteInput);
+
+        if (cellData != null && isParallel(cellData)) {
+            extractAndSetLiveCellsInParallel(cellData, life106Pattern);
+            return;
+        }
+
+        if (cellData != null)
+            byteInput = ByteInput.of(cellData);
+
+        CellSink cellSink = presizesCellStore() ? cellSink(life106Pattern, countLines(byteInput)) : cellSink(life106Pattern);
+        long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+
+        while (byteInput.readLine(line)) {
+            line.trim();
+
+            if (!line.hasNextLong())
+                continue;
+
+            long x = line.nextLong();
+
+            if (!line.skipWhitespace() || !line.hasNextLong())
+                continue;
+
+            long y = line.nextLong();
+
+            if (!line.isAtEnd())
+                continue;
+
+            cellSink.accept(x, y, 1);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x + 1);
+            maxY = Math.max(maxY, y + 1);
         }
 
-        minX = minX != null ? minX : 0;
-        minY = minY != null ? minY : 0;
+        if (minX > maxX) {
+            minX = minY = 0;
+            maxX = maxY = 0;
+        }
 
-        life106Pattern.setWidth((maxX != null ? maxX : minX) - minX);
-        life106Pattern.setHeight((maxY != null ? maxY : minY) - minY);
+        life106Pattern.setWidth(maxX - minX);
+        life106Pattern.setHeight(maxY - minY);
         life106Pattern.setOrigin(new Coordinate(minX, minY));
-        life106Pattern.cells().addAll(cells);
+        compactCellStore(life106Pattern, minX, minY, maxX - minX, maxY - minY);
+    }
+
+    private long countLines(ByteInput byteInput) throws IOException {
+        ByteBuffer buffer = bufferedRemainder(byteInput);
+
+        if (buffer == null)
+            return 0;
+
+        long lines = 1;
+
+        for (int i = buffer.position(); i < buffer.limit(); i++)
+            if (buffer.get(i) == '\n')
+                lines++;
+
+        return lines;
     }
 
-    private Coordinate getCoordinateFromCoordinateLine(String coordinateLine) {
-        Matcher matcher = COORDINATE_LINE_PATTERN.matcher(coordinateLine);
+    private void extractAndSetLiveCellsInParallel(ByteBuffer cellData, Life106Pattern life106Pattern) {
+        Life106ParallelReader reader = new Life106ParallelReader(getForkJoinPool());
+
+        reader.read(cellData);
 
-        if (matcher.find())
-            return new Coordinate(
-                    Long.parseLong(matcher.group(1)),
-                    Long.parseLong(matcher.group(2))
-            );
+        long cellCount = reader.cellCount();
 
-        throw new IllegalArgumentException("Impossible for this to be thrown");
+        if (cellCount == 0) {
+            life106Pattern.setWidth(0);
+            life106Pattern.setHeight(0);
+            life106Pattern.setOrigin(new Coordinate(0, 0));
+            return;
+        }
+
+        long minX = reader.minX(), minY = reader.minY(), maxX = reader.maxX(), maxY = reader.maxY();
+
+        reader.forEachCell(cellSink(life106Pattern, minX, minY, maxX - minX, maxY - minY, cellCount));
+        life106Pattern.setWidth(maxX - minX);
+        life106Pattern.setHeight(maxY - minY);
+        life106Pattern.setOrigin(new Coordinate(minX, minY));
+        compactCellStore(life106Pattern, minX, minY, maxX - minX, maxY - minY);
     }
 }
@@ -0,0 +1,38 @@
+package io.github.robertograham.cellularautomata.parsers.life106;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteInput;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ICellularAutomataPatternParserProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+public class Life106ParserProvider implements ICellularAutomataPatternParserProvider {
+
+    @Override
+    public String formatName() {
+        return "Life 1.06";
+    }
+
+    @Override
+    public boolean matches(ByteBuffer header) {
+        ByteInput byteInput = ByteInput.of(header);
+        ByteLine line = new ByteLine();
+
+        try {
+            while (byteInput.readLine(line))
+                if (!line.trim().isEmpty())
+                    return Life106Parser.isHeader(line);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return false;
+    }
+
+    @Override
+    public Life106Parser parser() {
+        return new Life106Parser();
+    }
+}
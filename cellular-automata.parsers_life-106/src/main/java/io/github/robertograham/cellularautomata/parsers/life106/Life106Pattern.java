@@ -1,8 +1,9 @@
 package io.github.robertograham.cellularautomata.parsers.life106;
 
 import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.common.model.DimensionedPattern;
 
-public class Life106Pattern extends CellularAutomataPattern {
+public class Life106Pattern extends CellularAutomataPattern implements DimensionedPattern {
 
     public Long getWidth() {
         return (Long) properties().getOrDefault(PropertyKey.WIDTH, null);
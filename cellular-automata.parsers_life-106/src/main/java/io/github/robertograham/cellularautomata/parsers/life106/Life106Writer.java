@@ -0,0 +1,39 @@
+package io.github.robertograham.cellularautomata.parsers.life106;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteOutput;
+import io.github.robertograham.cellularautomata.parsers.common.writer.concrete.CellularAutomataPatternWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+public class Life106Writer extends CellularAutomataPatternWriter<Life106Pattern> {
+
+    @Override
+    protected void write(Life106Pattern life106Pattern, ByteOutput byteOutput) throws IOException {
+        byteOutput.write("#Life 1.06");
+        byteOutput.newLine();
+
+        for (String comment : life106Pattern.comments()) {
+            byteOutput.write(comment.isEmpty() ? "#D" : "#D ");
+            byteOutput.write(comment);
+            byteOutput.newLine();
+        }
+
+        try {
+            life106Pattern.cellStore().forEachCell((x, y, state) -> writeCell(x, y, byteOutput));
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    private void writeCell(long x, long y, ByteOutput byteOutput) {
+        try {
+            byteOutput.write(x);
+            byteOutput.write((byte) ' ');
+            byteOutput.write(y);
+            byteOutput.newLine();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
@@ -1,4 +1,7 @@
 module io.github.robertograham.cellularautomata.parsers.life106 {
     requires io.github.robertograham.cellularautomata.parsers.common;
     exports io.github.robertograham.cellularautomata.parsers.life106;
+
+    provides io.github.robertograham.cellularautomata.parsers.common.parser.ICellularAutomataPatternParserProvider
+            with io.github.robertograham.cellularautomata.parsers.life106.Life106ParserProvider;
 }
@@ -0,0 +1,172 @@
+package io.github.robertograham.cellularautomata.parsers.macrocell;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTree;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeNode;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeNodeTable;
+
+import java.util.Arrays;
+
+final class MacrocellNodeReader {
+
+    private static final int MAXIMUM_NODES = Integer.MAX_VALUE - 8;
+
+    private final QuadTreeNodeTable nodeTable;
+    private QuadTreeNode[] nodes = new QuadTreeNode[1 << 10];
+    private long[] smallNodes = new long[1 << 10];
+    private byte[] levels = new byte[1 << 10];
+    private int size;
+
+    MacrocellNodeReader(QuadTreeNodeTable nodeTable) {
+        this.nodeTable = nodeTable;
+    }
+
+    static boolean isLeafLine(ByteLine line) {
+        var first = line.byteAt(0);
+
+        return first == '.' || first == '*' || first == '$';
+    }
+
+    void readLeaf(ByteLine line) {
+        var bits = 0L;
+        var x = 0;
+        var y = 0;
+
+        for (var index = 0; index < line.length(); index++) {
+            var character = line.byteAt(index);
+
+            if (character == '$') {
+                x = 0;
+                y++;
+                continue;
+            }
+
+            if (character != '.' && character != '*')
+                throw new IllegalArgumentException("Unexpected character '" + (char) character + "' in macrocell leaf " + (size + 1));
+
+            if (x > 7 || y > 7)
+                throw new IllegalArgumentException("Macrocell leaf " + (size + 1) + " is larger than 8x8");
+
+            if (character == '*')
+                bits |= 1L << (y << 3 | x);
+
+            x++;
+        }
+
+        add(nodeTable.leaf(bits), 0, QuadTreeNode.LEAF_LEVEL);
+    }
+
+    void readNode(ByteLine line) {
+        line.rewind();
+
+        var level = (int) Math.min(nextLong(line), Integer.MAX_VALUE);
+
+        if (level < 1 || level > QuadTree.MAXIMUM_LEVEL)
+            throw new IllegalArgumentException("Macrocell node " + (size + 1) + " has unsupported level " + level);
+
+        var nw = nextLong(line);
+        var ne = nextLong(line);
+        var sw = nextLong(line);
+        var se = nextLong(line);
+
+        line.skipWhitespace();
+
+        if (!line.isAtEnd())
+            throw new IllegalArgumentException("Macrocell node " + (size + 1) + " has trailing characters");
+
+        if (level == 1) {
+            add(null, state(nw) | state(ne) << 1 | state(sw) << 8 | state(se) << 9, level);
+            return;
+        }
+
+        if (level <= QuadTreeNode.LEAF_LEVEL) {
+            var half = 1 << (level - 1);
+            var bits = smallNode(nw, level) | smallNode(ne, level) << half | smallNode(sw, level) << (half << 3) |
+                    smallNode(se, level) << ((half << 3) + half);
+
+            if (level == QuadTreeNode.LEAF_LEVEL)
+                add(nodeTable.leaf(bits), 0, level);
+            else
+                add(null, bits, level);
+
+            return;
+        }
+
+        add(nodeTable.node(node(nw, level), node(ne, level), node(sw, level), node(se, level)), 0, level);
+    }
+
+    QuadTree quadTree() {
+        if (size == 0)
+            return new QuadTree(nodeTable);
+
+        var level = levels[size];
+
+        if (level >= QuadTree.MINIMUM_ROOT_LEVEL)
+            return new QuadTree(nodeTable, nodes[size]);
+
+        var quadTree = new QuadTree(nodeTable);
+        var origin = QuadTree.originOf(level);
+
+        for (var bits = level == QuadTreeNode.LEAF_LEVEL ? nodes[size].bits() : smallNodes[size]; bits != 0; bits &= bits - 1) {
+            var index = Long.numberOfTrailingZeros(bits);
+
+            quadTree.set(origin + (index & 7), origin + (index >>> 3));
+        }
+
+        return quadTree;
+    }
+
+    private long nextLong(ByteLine line) {
+        line.skipWhitespace();
+
+        if (!line.hasNextUnsignedLong())
+            throw new IllegalArgumentException("Macrocell node " + (size + 1) + " is not of the form \"level nw ne sw se\"");
+
+        return line.nextLong();
+    }
+
+    private long state(long state) {
+        if (state > 1)
+            throw new IllegalArgumentException("Macrocell node " + (size + 1) + " has state " + state + "; only two-state patterns are supported");
+
+        return state;
+    }
+
+    private long smallNode(long index, int level) {
+        checkChild(index, level);
+
+        return index == 0 ? 0 : smallNodes[(int) index];
+    }
+
+    private QuadTreeNode node(long index, int level) {
+        checkChild(index, level);
+
+        return index == 0 ? nodeTable.empty(level - 1) : nodes[(int) index];
+    }
+
+    private void checkChild(long index, int level) {
+        if (index > size)
+            throw new IllegalArgumentException("Macrocell node " + (size + 1) + " refers to undefined node " + index);
+
+        if (index != 0 && levels[(int) index] != level - 1)
+            throw new IllegalArgumentException("Macrocell node " + (size + 1) + " refers to node " + index + ", which is not a level " + (level - 1) + " node");
+    }
+
+    private void add(QuadTreeNode node, long bits, int level) {
+        if (size + 1 == nodes.length) {
+            if (nodes.length == MAXIMUM_NODES)
+                throw new IllegalArgumentException("Macrocell has more than " + (MAXIMUM_NODES - 1) + " nodes");
+
+            var capacity = (int) Math.min(MAXIMUM_NODES, (long) nodes.length << 1);
+
+            nodes = Arrays.copyOf(nodes, capacity);
+            smallNodes = Arrays.copyOf(smallNodes, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+        }
+
+        size++;
+        nodes[size] = node;
+        smallNodes[size] = bits;
+        levels[size] = (byte) level;
+    }
+}
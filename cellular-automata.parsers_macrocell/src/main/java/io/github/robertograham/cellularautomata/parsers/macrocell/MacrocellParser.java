@@ -0,0 +1,118 @@
+package io.github.robertograham.cellularautomata.parsers.macrocell;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteInput;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStorage;
+import io.github.robertograham.cellularautomata.parsers.common.model.Coordinate;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParsePhase;
+import io.github.robertograham.cellularautomata.parsers.common.parser.concrete.CellularAutomataPatternParser;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeNodeTable;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+public class MacrocellParser extends CellularAutomataPatternParser<MacrocellPattern> {
+
+    private static final String HEADER = "[M2]";
+
+    @Override
+    protected MacrocellPattern parse(ByteInput byteInput) throws IOException {
+        var line = new ByteLine();
+
+        do
+            if (!byteInput.readLine(line))
+                throw new IllegalArgumentException("No important lines");
+        while (line.trim().isEmpty());
+
+        if (!isHeader(line))
+            throw new IllegalArgumentException("Header did not start with \"" + HEADER + "\"");
+
+        var macrocellPattern = new MacrocellPattern();
+        var nodeReader = new MacrocellNodeReader(new QuadTreeNodeTable());
+        var readingNodes = false;
+
+        while (byteInput.readLine(line)) {
+            if (line.trim().isEmpty())
+                continue;
+
+            if (line.byteAt(0) == '#') {
+                readDirective(line, macrocellPattern);
+                continue;
+            }
+
+            if (!readingNodes) {
+                enterPhase(ParsePhase.CELLS);
+                readingNodes = true;
+            }
+
+            if (MacrocellNodeReader.isLeafLine(line))
+                nodeReader.readLeaf(line);
+            else
+                nodeReader.readNode(line);
+        }
+
+        var quadTree = nodeReader.quadTree();
+
+        macrocellPattern.setQuadTree(quadTree);
+
+        if (quadTree.isEmpty()) {
+            macrocellPattern.setWidth(0);
+            macrocellPattern.setHeight(0);
+        } else {
+            macrocellPattern.setOrigin(new Coordinate(quadTree.minX(), quadTree.minY()));
+            macrocellPattern.setWidth(quadTree.maxX() - quadTree.minX() + 1);
+            macrocellPattern.setHeight(quadTree.maxY() - quadTree.minY() + 1);
+        }
+
+        checkCellBudget(quadTree.population());
+
+        if (getCellStorage() == CellStorage.QUADTREE)
+            macrocellPattern.setCellStore(new QuadTreeCellStore(quadTree.nodeTable(), quadTree.root()));
+        else if (isLazyCells())
+            macrocellPattern.setCellStoreLoader(() -> expandCells(macrocellPattern));
+        else
+            expandCells(macrocellPattern);
+
+        return macrocellPattern;
+    }
+
+    static boolean isHeader(ByteLine line) {
+        line.rewind();
+
+        return line.skipIf(HEADER);
+    }
+
+    private void readDirective(ByteLine line, MacrocellPattern macrocellPattern) {
+        if (line.length() < 2)
+            return;
+
+        switch (line.byteAt(1)) {
+            case 'C':
+            case 'D':
+                macrocellPattern.comments().add(directiveText(line));
+                break;
+            case 'R':
+                macrocellPattern.setRule(directiveText(line));
+                break;
+            case 'G':
+                try {
+                    macrocellPattern.setGeneration(new BigInteger(directiveText(line)));
+                } catch (NumberFormatException exception) {
+                    throw new IllegalArgumentException("Generation \"" + directiveText(line) + "\" is not an integer", exception);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void expandCells(MacrocellPattern macrocellPattern) {
+        var origin = macrocellPattern.origin();
+        var width = macrocellPattern.getWidth();
+        var height = macrocellPattern.getHeight();
+
+        macrocellPattern.quadTree().forEachCell(cellSink(macrocellPattern, origin.x(), origin.y(), width, height, macrocellPattern.quadTree().population()));
+        compactCellStore(macrocellPattern, origin.x(), origin.y(), width, height);
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.robertograham.cellularautomata.parsers.macrocell;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteInput;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ICellularAutomataPatternParserProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+public class MacrocellParserProvider implements ICellularAutomataPatternParserProvider {
+
+    @Override
+    public String formatName() {
+        return "Macrocell";
+    }
+
+    @Override
+    public boolean matches(ByteBuffer header) {
+        var byteInput = ByteInput.of(header);
+        var line = new ByteLine();
+
+        try {
+            while (byteInput.readLine(line))
+                if (!line.trim().isEmpty())
+                    return MacrocellParser.isHeader(line);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return false;
+    }
+
+    @Override
+    public MacrocellParser parser() {
+        return new MacrocellParser();
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.robertograham.cellularautomata.parsers.macrocell;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.common.model.DimensionedPattern;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTree;
+
+import java.math.BigInteger;
+
+public class MacrocellPattern extends CellularAutomataPattern implements DimensionedPattern {
+
+    private QuadTree quadTree = new QuadTree();
+
+    public QuadTree quadTree() {
+        return quadTree;
+    }
+
+    public void setQuadTree(QuadTree quadTree) {
+        this.quadTree = quadTree;
+    }
+
+    public String getRule() {
+        return properties().getProperty(PropertyKey.RULE.name());
+    }
+
+    public void setRule(String rule) {
+        properties().setProperty(PropertyKey.RULE.name(), rule);
+    }
+
+    public BigInteger getGeneration() {
+        var generation = (String) properties().getOrDefault(PropertyKey.GENERATION, null);
+
+        return generation == null ? null : new BigInteger(generation);
+    }
+
+    public void setGeneration(BigInteger generation) {
+        properties().put(PropertyKey.GENERATION, generation.toString());
+    }
+
+    public Long getWidth() {
+        return (Long) properties().getOrDefault(PropertyKey.WIDTH, null);
+    }
+
+    public void setWidth(long width) {
+        properties().put(PropertyKey.WIDTH, width);
+    }
+
+    public Long getHeight() {
+        return (Long) properties().getOrDefault(PropertyKey.HEIGHT, null);
+    }
+
+    public void setHeight(long height) {
+        properties().put(PropertyKey.HEIGHT, height);
+    }
+
+    public enum PropertyKey {
+        RULE, GENERATION, WIDTH, HEIGHT
+    }
+}
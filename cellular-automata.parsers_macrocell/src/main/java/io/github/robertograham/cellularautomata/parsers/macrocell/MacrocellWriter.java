@@ -0,0 +1,98 @@
+package io.github.robertograham.cellularautomata.parsers.macrocell;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteOutput;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTree;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeNode;
+import io.github.robertograham.cellularautomata.parsers.common.writer.concrete.CellularAutomataPatternWriter;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+public class MacrocellWriter extends CellularAutomataPatternWriter<MacrocellPattern> {
+
+    @Override
+    protected void write(MacrocellPattern macrocellPattern, ByteOutput byteOutput) throws IOException {
+        byteOutput.write("[M2]");
+        byteOutput.newLine();
+
+        if (macrocellPattern.getRule() != null) {
+            byteOutput.write("#R ");
+            byteOutput.write(macrocellPattern.getRule());
+            byteOutput.newLine();
+        }
+
+        if (macrocellPattern.getGeneration() != null) {
+            byteOutput.write("#G ");
+            byteOutput.write(macrocellPattern.getGeneration().toString());
+            byteOutput.newLine();
+        }
+
+        for (var comment : macrocellPattern.comments()) {
+            byteOutput.write(comment.isEmpty() ? "#C" : "#C ");
+            byteOutput.write(comment);
+            byteOutput.newLine();
+        }
+
+        var quadTree = quadTree(macrocellPattern);
+
+        if (!quadTree.isEmpty())
+            writeNode(quadTree.root(), new IdentityHashMap<>(), byteOutput);
+    }
+
+    private static QuadTree quadTree(MacrocellPattern macrocellPattern) {
+        if (!macrocellPattern.isCellStoreLoaded())
+            return macrocellPattern.quadTree();
+
+        var cellStore = macrocellPattern.cellStore();
+
+        return (cellStore instanceof QuadTreeCellStore ? (QuadTreeCellStore) cellStore : QuadTreeCellStore.of(cellStore)).quadTree();
+    }
+
+    private static long writeNode(QuadTreeNode node, Map<QuadTreeNode, Long> ids, ByteOutput byteOutput) throws IOException {
+        if (node.isEmpty())
+            return 0;
+
+        var id = ids.get(node);
+
+        if (id != null)
+            return id;
+
+        if (node.isLeaf())
+            writeLeaf(node.bits(), byteOutput);
+        else {
+            var nw = writeNode(node.nw(), ids, byteOutput);
+            var ne = writeNode(node.ne(), ids, byteOutput);
+            var sw = writeNode(node.sw(), ids, byteOutput);
+            var se = writeNode(node.se(), ids, byteOutput);
+
+            byteOutput.write(node.level());
+            byteOutput.write((byte) ' ');
+            byteOutput.write(nw);
+            byteOutput.write((byte) ' ');
+            byteOutput.write(ne);
+            byteOutput.write((byte) ' ');
+            byteOutput.write(sw);
+            byteOutput.write((byte) ' ');
+            byteOutput.write(se);
+        }
+
+        byteOutput.newLine();
+        id = ids.size() + 1L;
+        ids.put(node, id);
+
+        return id;
+    }
+
+    private static void writeLeaf(long bits, ByteOutput byteOutput) throws IOException {
+        for (var y = 0; y < 8 && bits >>> (y << 3) != 0; y++) {
+            var row = (int) (bits >>> (y << 3) & 0xFF);
+
+            for (var x = 0; row >>> x != 0; x++)
+                byteOutput.write((byte) ((row >>> x & 1) == 0 ? '.' : '*'));
+
+            byteOutput.write((byte) '$');
+        }
+    }
+}
@@ -0,0 +1,7 @@
+module io.github.robertograham.cellularautomata.parsers.macrocell {
+    requires io.github.robertograham.cellularautomata.parsers.common;
+    exports io.github.robertograham.cellularautomata.parsers.macrocell;
+
+    provides io.github.robertograham.cellularautomata.parsers.common.parser.ICellularAutomataPatternParserProvider
+            with io.github.robertograham.cellularautomata.parsers.macrocell.MacrocellParserProvider;
+}
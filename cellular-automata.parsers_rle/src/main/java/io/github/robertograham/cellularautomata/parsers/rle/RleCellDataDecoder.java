@@ -0,0 +1,150 @@
+package io.github.robertograham.cellularautomata.parsers.rle;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
+
+import java.nio.ByteBuffer;
+
+final class RleCellDataDecoder {
+
+    private static final int STATES_PER_PREFIX = 24;
+
+    private final CellSink cellSink;
+    private final long originX;
+    private long x;
+    private long y;
+    private long length;
+    private boolean lengthPresent;
+    private byte statePrefix;
+    private boolean terminated;
+
+    RleCellDataDecoder(CellSink cellSink, long originX, long originY) {
+        this.cellSink = cellSink;
+        this.originX = originX;
+        x = originX;
+        y = originY;
+    }
+
+    void decode(ByteBuffer buffer) {
+        var index = buffer.position();
+        var limit = buffer.limit();
+
+        while (index < limit && !terminated)
+            decode(buffer.get(index++));
+
+        buffer.position(index);
+    }
+
+    void decode(byte encodedByte) {
+        if (terminated)
+            return;
+
+        if (encodedByte >= '0' && encodedByte <= '9') {
+            var digit = encodedByte - '0';
+
+            if (length > (Long.MAX_VALUE - digit) / 10)
+                throw new IllegalArgumentException("Run length overflows a long");
+
+            length = length * 10 + digit;
+            lengthPresent = true;
+            return;
+        }
+
+        if (encodedByte >= 'p' && encodedByte <= 'y') {
+            if (statePrefix != 0)
+                throw new IllegalArgumentException("Unexpected state prefix in encoded cell data: '" + (char) encodedByte + "'");
+
+            statePrefix = encodedByte;
+            return;
+        }
+
+        if (encodedByte >= 'A' && encodedByte <= 'X') {
+            var state = encodedByte - 'A' + 1;
+
+            if (statePrefix != 0)
+                state += (statePrefix - 'p' + 1) * STATES_PER_PREFIX;
+
+            statePrefix = 0;
+            acceptRun(state);
+            return;
+        }
+
+        if (statePrefix != 0 && !isWhitespace(encodedByte))
+            throw new IllegalArgumentException("Expected a state letter after '" + (char) statePrefix + "' in encoded cell data");
+
+        switch (encodedByte) {
+            case 'b':
+            case '.':
+                x += runLength();
+                break;
+            case 'o':
+                acceptRun(1);
+                break;
+            case '$':
+                y += runLength();
+                x = originX;
+                break;
+            case '!':
+                terminated = true;
+                break;
+            case ' ':
+            case '\t':
+            case '\r':
+            case '\n':
+                break;
+            default:
+                throw new IllegalArgumentException("Unexpected character in encoded cell data: '" + (char) (encodedByte & 0xFF) + "'");
+        }
+    }
+
+    static long countCells(ByteBuffer buffer) {
+        var cells = 0L;
+        var length = 0L;
+        var lengthPresent = false;
+
+        for (var index = buffer.position(); index < buffer.limit(); index++) {
+            var encodedByte = buffer.get(index);
+
+            if (encodedByte >= '0' && encodedByte <= '9') {
+                var digit = encodedByte - '0';
+
+                length = length > (Long.MAX_VALUE - digit) / 10 ? Long.MAX_VALUE : length * 10 + digit;
+                lengthPresent = true;
+            } else if (encodedByte == 'o' || encodedByte >= 'A' && encodedByte <= 'X') {
+                var runLength = lengthPresent ? length : 1L;
+
+                cells = runLength > Long.MAX_VALUE - cells ? Long.MAX_VALUE : cells + runLength;
+                length = 0;
+                lengthPresent = false;
+            } else if (encodedByte == '!')
+                break;
+            else if (!(encodedByte >= 'p' && encodedByte <= 'y') && !isWhitespace(encodedByte)) {
+                length = 0;
+                lengthPresent = false;
+            }
+        }
+
+        return cells;
+    }
+
+    boolean isTerminated() {
+        return terminated;
+    }
+
+    private void acceptRun(long state) {
+        var runLength = runLength();
+
+        cellSink.acceptRun(x, y, runLength, state);
+        x += runLength;
+    }
+
+    private static boolean isWhitespace(byte encodedByte) {
+        return encodedByte == ' ' || encodedByte == '\t' || encodedByte == '\r' || encodedByte == '\n';
+    }
+
+    private long runLength() {
+        var runLength = lengthPresent ? length : 1L;
+        length = 0;
+        lengthPresent = false;
+        return runLength;
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.robertograham.cellularautomata.parsers.rle;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+final class RleParallelDecoder {
+
+    private static final int MINIMUM_CHUNK_SIZE = 1 << 16;
+    private static final int MAXIMUM_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 8;
+    private static final int WINDOW_PER_THREAD = 2;
+
+    private final ForkJoinPool forkJoinPool;
+
+    RleParallelDecoder(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    void decode(ByteBuffer cellData, CellSink cellSink, long originX, long originY) {
+        var chunkStarts = split(cellData);
+        var chunkCount = chunkStarts.length - 1;
+        var rowTasks = new ArrayList<ForkJoinTask<RowAdvance>>(chunkCount);
+
+        for (var chunk = 0; chunk < chunkCount; chunk++) {
+            var from = chunkStarts[chunk];
+            var to = chunkStarts[chunk + 1];
+            rowTasks.add(forkJoinPool.submit(() -> RowAdvance.scan(cellData, from, to)));
+        }
+
+        var startRows = new long[chunkCount];
+        var decodedChunks = chunkCount;
+        var terminated = false;
+        var row = originY;
+
+        for (var chunk = 0; chunk < chunkCount; chunk++) {
+            var rowAdvance = rowTasks.get(chunk).join();
+
+            startRows[chunk] = row;
+
+            if (rowAdvance.terminated) {
+                decodedChunks = chunk + 1;
+                terminated = true;
+                break;
+            }
+
+            row += rowAdvance.rows;
+        }
+
+        cancelAll(rowTasks.subList(decodedChunks, chunkCount));
+        decodeChunks(cellData, chunkStarts, startRows, decodedChunks, cellSink, originX);
+
+        if (!terminated)
+            throw new IllegalArgumentException("Encoded cell data was not terminated");
+    }
+
+    private void decodeChunks(ByteBuffer cellData, int[] chunkStarts, long[] startRows, int chunkCount, CellSink cellSink, long originX) {
+        var window = new ArrayDeque<ForkJoinTask<RunBuffer>>();
+        var windowSize = Math.max(1, forkJoinPool.getParallelism() * WINDOW_PER_THREAD);
+
+        try {
+            for (var chunk = 0; chunk < chunkCount; chunk++) {
+                if (window.size() >= windowSize)
+                    window.removeFirst().join().replay(cellSink);
+
+                var from = chunkStarts[chunk];
+                var to = chunkStarts[chunk + 1];
+                var startRow = startRows[chunk];
+                window.addLast(forkJoinPool.submit(() -> decodeChunk(cellData, from, to, originX, startRow)));
+            }
+
+            while (!window.isEmpty())
+                window.removeFirst().join().replay(cellSink);
+        } finally {
+            cancelAll(window);
+        }
+    }
+
+    private static RunBuffer decodeChunk(ByteBuffer cellData, int from, int to, long originX, long startRow) {
+        var runBuffer = new RunBuffer();
+        var chunk = cellData.duplicate();
+
+        chunk.limit(to).position(from);
+        new RleCellDataDecoder(runBuffer, originX, startRow).decode(chunk);
+
+        return runBuffer;
+    }
+
+    private int[] split(ByteBuffer cellData) {
+        var from = cellData.position();
+        var limit = cellData.limit();
+        var targetChunks = (long) forkJoinPool.getParallelism() * CHUNKS_PER_THREAD;
+        var chunkSize = (int) Math.max(MINIMUM_CHUNK_SIZE, Math.min(MAXIMUM_CHUNK_SIZE, (limit - from) / targetChunks));
+        var chunkStarts = new int[16];
+        var chunkCount = 0;
+
+        chunkStarts[chunkCount++] = from;
+
+        for (var index = from; limit - index > chunkSize; ) {
+            index += chunkSize;
+
+            while (index < limit && cellData.get(index) != '$' && cellData.get(index) != '!')
+                index++;
+
+            if (index >= limit || cellData.get(index) == '!')
+                break;
+
+            if (chunkCount == chunkStarts.length)
+                chunkStarts = Arrays.copyOf(chunkStarts, chunkCount << 1);
+
+            chunkStarts[chunkCount++] = ++index;
+        }
+
+        chunkStarts = Arrays.copyOf(chunkStarts, chunkCount + 1);
+        chunkStarts[chunkCount] = limit;
+
+        return chunkStarts;
+    }
+
+    private static void cancelAll(Iterable<? extends ForkJoinTask<?>> tasks) {
+        for (var task : tasks)
+            task.cancel(false);
+    }
+
+    private static final class RowAdvance {
+
+        private final long rows;
+        private final boolean terminated;
+
+        private RowAdvance(long rows, boolean terminated) {
+            this.rows = rows;
+            this.terminated = terminated;
+        }
+
+        private static RowAdvance scan(ByteBuffer cellData, int from, int to) {
+            var rows = 0L;
+            var length = 0L;
+            var lengthPresent = false;
+
+            for (var index = from; index < to; index++) {
+                var encodedByte = cellData.get(index);
+
+                if (encodedByte >= '0' && encodedByte <= '9') {
+                    length = length * 10 + encodedByte - '0';
+                    lengthPresent = true;
+                } else if (encodedByte == '$') {
+                    rows += lengthPresent ? length : 1L;
+                    length = 0;
+                    lengthPresent = false;
+                } else if (encodedByte == '!')
+                    return new RowAdvance(rows, true);
+                else if (encodedByte > ' ') {
+                    length = 0;
+                    lengthPresent = false;
+                }
+            }
+
+            return new RowAdvance(rows, false);
+        }
+    }
+
+    private static final class RunBuffer implements CellSink {
+
+        private long[] runs = new long[64];
+        private int size;
+
+        @Override
+        public void accept(long x, long y, long state) {
+            acceptRun(x, y, 1, state);
+        }
+
+        @Override
+        public void acceptRun(long x, long y, long length, long state) {
+            if (size + 4 > runs.length)
+                runs = Arrays.copyOf(runs, runs.length << 1);
+
+            runs[size++] = x;
+            runs[size++] = y;
+            runs[size++] = length;
+            runs[size++] = state;
+        }
+
+        private void replay(CellSink cellSink) {
+            for (var index = 0; index < size; index += 4)
+                cellSink.acceptRun(runs[index], runs[index + 1], runs[index + 2], runs[index + 3]);
+        }
+    }
+}
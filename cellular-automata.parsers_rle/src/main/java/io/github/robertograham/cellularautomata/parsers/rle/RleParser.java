@@ -1,132 +1,225 @@
 package io.github.robertograham.cellularautomata.parsers.rle;
 
-import io.github.robertograham.cellularautomata.parsers.common.model.Cell;
-import io.github.robertograham.cellularautomata.parsers.common.model.Coordinate;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteInput;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ParsePhase;
 import io.github.robertograham.cellularautomata.parsers.common.parser.concrete.CellularAutomataPatternParser;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Objects;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
 public class RleParser extends CellularAutomataPatternParser<RlePattern> {
 
-    private static final String HEADER_REGEX = "x\\s*=\\s*[0-9]+\\s*,\\s*y\\s*=\\s*[0-9]+(\\s*,\\s*rule\\s*=\\s*.*)?";
-    private static final String RULE_REGEX = "#r\\s+.*";
-    private static final String CONCEPTION_DETAILS_REGEX = "#O\\s+.*";
-    private static final String COMMENT_REGEX = "#C|c(|(\\s+.*))";
-    private static final Pattern ORIGIN_COORDINATE_PATTERN = Pattern.compile("#P|R\\s+(-?[0-9]+)\\s+(-?[0-9]+)");
-    private static final String ENCODED_CELL_DATA_LINE_REGEX = "((\\d*[ob$])+!?)|!";
-    private static final Pattern ENCODED_STATUS_RUN_PATTERN = Pattern.compile("(\\d*)([ob$])");
+    public RlePattern parse(InputStream inputStream, CellSink cellSink) {
+        try (var byteInput = ByteInput.of(inputStream)) {
+            return parse(byteInput, cellSink);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public RlePattern parse(Path path, CellSink cellSink) {
+        try (var byteInput = ByteInput.map(path)) {
+            return parse(byteInput, cellSink);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
 
     @Override
-    public RlePattern parse(InputStream inputStream) {
-        var lines = readInputStreamToStringList(inputStream);
-        var trimmedNonEmptyLines = lines.stream()
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(line -> !line.isEmpty())
-                .collect(Collectors.toList());
+    protected RlePattern parse(ByteInput byteInput) throws IOException {
+        var rlePattern = new RlePattern();
+
+        readHeader(byteInput, rlePattern);
 
-        if (trimmedNonEmptyLines.isEmpty())
-            throw new IllegalArgumentException("No important lines");
+        if (isLazyCells())
+            loadCellsLazily(rlePattern, byteInput.retainRemaining(), this::decodeCells);
+        else
+            decodeCells(byteInput, rlePattern);
+
+        return rlePattern;
+    }
+
+    private void decodeCells(ByteInput byteInput, RlePattern rlePattern) throws IOException {
+        readCellData(byteInput, rlePattern, presizesCellStore(), this::patternCellSink);
+        compactCellStore(rlePattern);
+    }
 
+    private RlePattern parse(ByteInput byteInput, CellSink cellSink) throws IOException {
         var rlePattern = new RlePattern();
 
-        extractAndSetWidthAndHeightAndRule(trimmedNonEmptyLines, rlePattern);
-        extractAndSetComments(trimmedNonEmptyLines, rlePattern);
-        extractAndSetOrigin(trimmedNonEmptyLines, rlePattern);
-        extractAndSetCells(trimmedNonEmptyLines, rlePattern);
-        extractAndSetConceptionDetails(trimmedNonEmptyLines, rlePattern);
+        readHeader(byteInput, rlePattern);
+        readCellData(byteInput, rlePattern, false, (pattern, expectedCells) -> withCellBudget(cellSink));
 
         return rlePattern;
     }
 
-    private void extractAndSetWidthAndHeightAndRule(List<String> lines, RlePattern rlePattern) {
-        var headerLine = lines.stream()
-                .filter(line -> line.matches(HEADER_REGEX))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("No valid header line"));
+    private CellSink patternCellSink(RlePattern rlePattern, long expectedCells) {
+        return cellSink(rlePattern, rlePattern.origin().x(), rlePattern.origin().y(), rlePattern.getWidth(), rlePattern.getHeight(), expectedCells);
+    }
 
-        headerLine = headerLine.replaceAll("\\s+", "");
+    private void readHeader(ByteInput byteInput, RlePattern rlePattern) throws IOException {
+        var line = new ByteLine();
+        String rule = null;
+        var anyImportantLines = false;
+
+        while (byteInput.readLine(line)) {
+            if (line.trim().isEmpty())
+                continue;
+
+            anyImportantLines = true;
+
+            if (line.byteAt(0) == '#') {
+                if (line.length() < 2)
+                    continue;
+
+                switch (line.byteAt(1)) {
+                    case 'C':
+                    case 'c':
+                        rlePattern.comments().add(directiveText(line));
+                        break;
+                    case 'O':
+                        if (rlePattern.getConceptionDetails() == null)
+                            rlePattern.setConceptionDetails(directiveText(line));
+                        break;
+                    case 'P':
+                    case 'R':
+                        var origin = directiveCoordinate(line);
+                        if (origin != null)
+                            rlePattern.setOrigin(origin);
+                        break;
+                    case 'r':
+                        if (rule == null)
+                            rule = directiveText(line);
+                        break;
+                    default:
+                        break;
+                }
+
+                continue;
+            }
 
-        var headerLineComponents = headerLine.split(",", 3);
+            if (!readHeaderLine(line, rlePattern))
+                throw new IllegalArgumentException("No valid header line");
 
-        rlePattern.setWidth(Long.parseLong(headerLineComponents[0].substring(2)));
-        rlePattern.setHeight(Long.parseLong(headerLineComponents[1].substring(2)));
+            if (rlePattern.getRule() == null && rule != null)
+                rlePattern.setRule(rule);
 
-        if (headerLineComponents.length == 3)
-            rlePattern.setRule(headerLineComponents[2].substring(5));
-        else
-            lines.stream()
-                    .filter(line -> line.matches(RULE_REGEX))
-                    .findFirst()
-                    .ifPresent(ruleLine -> rlePattern.setRule(ruleLine.substring(2).trim()));
-    }
+            return;
+        }
 
-    private void extractAndSetComments(List<String> lines, RlePattern rlePattern) {
-        rlePattern.comments().addAll(
-                lines.stream()
-                        .filter(line -> line.matches(COMMENT_REGEX))
-                        .map(commentLine -> commentLine.substring(2).trim())
-                        .collect(Collectors.toList())
-        );
+        throw new IllegalArgumentException(anyImportantLines ? "No valid header line" : "No important lines");
     }
 
-    private void extractAndSetOrigin(List<String> trimmedNonEmptyLines, RlePattern rlePattern) {
-        var originCoordinateLine = trimmedNonEmptyLines.stream()
-                .filter(line -> line.matches(ORIGIN_COORDINATE_PATTERN.pattern()))
-                .findFirst()
-                .orElse(null);
+    private boolean readHeaderLine(ByteLine line, RlePattern rlePattern) {
+        if (!skipAssignment(line, "x") || !line.hasNextUnsignedLong())
+            return false;
+
+        var width = line.nextLong();
+
+        line.skipWhitespace();
+
+        if (!line.skipIf(','))
+            return false;
+
+        line.skipWhitespace();
+
+        if (!skipAssignment(line, "y") || !line.hasNextUnsignedLong())
+            return false;
+
+        var height = line.nextLong();
+        String rule = null;
+
+        line.skipWhitespace();
 
-        if (originCoordinateLine != null) {
-            var matcher = ORIGIN_COORDINATE_PATTERN.matcher(originCoordinateLine);
+        if (!line.isAtEnd()) {
+            if (!line.skipIf(','))
+                return false;
 
-            if (matcher.find())
-                rlePattern.setOrigin(new Coordinate(
-                        Long.parseLong(matcher.group(1)),
-                        Long.parseLong(matcher.group(2))
-                ));
+            line.skipWhitespace();
+
+            if (!skipAssignment(line, "rule"))
+                return false;
+
+            rule = line.remainingToString();
         }
+
+        rlePattern.setWidth(width);
+        rlePattern.setHeight(height);
+
+        if (rule != null)
+            rlePattern.setRule(rule);
+
+        return true;
     }
 
-    private void extractAndSetCells(List<String> trimmedNonEmptyLines, RlePattern rlePattern) {
-        var encodedCellData = trimmedNonEmptyLines.stream()
-                .filter(line -> line.matches(ENCODED_CELL_DATA_LINE_REGEX))
-                .collect(Collectors.joining());
+    private static boolean skipAssignment(ByteLine line, String name) {
+        if (!line.skipIf(name))
+            return false;
 
-        if (!encodedCellData.endsWith("!"))
-            throw new IllegalArgumentException("Encoded cell data was not terminated");
+        line.skipWhitespace();
 
-        var matcher = ENCODED_STATUS_RUN_PATTERN.matcher(encodedCellData);
-        var cells = new HashSet<Cell>();
-        var coordinate = rlePattern.origin();
+        if (!line.skipIf('='))
+            return false;
 
-        while (matcher.find()) {
-            var lengthString = matcher.group(1);
-            var length = lengthString.isEmpty() ? 1L : Long.parseLong(lengthString);
-            var status = matcher.group(2);
+        line.skipWhitespace();
 
-            if ("$".equals(status))
-                coordinate = new Coordinate(rlePattern.origin().x(), coordinate.y() + length);
-            else {
-                if ("o".equals(status))
-                    for (var x = coordinate.x(); x < coordinate.x() + length; x++)
-                        cells.add(new Cell(coordinate.withX(x), 1));
+        return true;
+    }
+
+    private void readCellData(ByteInput byteInput, RlePattern rlePattern, boolean presize, CellSinkFactory cellSinkFactory) throws IOException {
+        enterPhase(ParsePhase.CELLS);
+
+        var cellData = readFullyIfParallel(byteInput);
+        var expectedCells = 0L;
 
-                coordinate = coordinate.plusToX(length);
+        if (presize || getCellBudget() != Long.MAX_VALUE) {
+            var bufferedCellData = cellData != null ? cellData : bufferedRemainder(byteInput);
+
+            if (bufferedCellData != null) {
+                expectedCells = RleCellDataDecoder.countCells(bufferedCellData);
+                checkCellBudget(expectedCells);
             }
         }
 
-        rlePattern.cells().addAll(cells);
+        var cellSink = cellSinkFactory.cellSink(rlePattern, presize ? expectedCells : 0);
+
+        if (cellData != null && isParallel(cellData)) {
+            new RleParallelDecoder(getForkJoinPool()).decode(cellData, cellSink, rlePattern.origin().x(), rlePattern.origin().y());
+            return;
+        }
+
+        if (cellData != null) {
+            decodeCellData(cellData, rlePattern, cellSink);
+            return;
+        }
+
+        var decoder = new RleCellDataDecoder(cellSink, rlePattern.origin().x(), rlePattern.origin().y());
+
+        do
+            decoder.decode(byteInput.buffer());
+        while (!decoder.isTerminated() && byteInput.fill());
+
+        if (!decoder.isTerminated())
+            throw new IllegalArgumentException("Encoded cell data was not terminated");
+    }
+
+    private void decodeCellData(ByteBuffer cellData, RlePattern rlePattern, CellSink cellSink) {
+        var decoder = new RleCellDataDecoder(cellSink, rlePattern.origin().x(), rlePattern.origin().y());
+
+        decoder.decode(cellData);
+
+        if (!decoder.isTerminated())
+            throw new IllegalArgumentException("Encoded cell data was not terminated");
     }
 
-    private void extractAndSetConceptionDetails(List<String> trimmedNonEmptyLines, RlePattern rlePattern) {
-        trimmedNonEmptyLines.stream()
-                .filter(line -> line.matches(CONCEPTION_DETAILS_REGEX))
-                .findFirst()
-                .ifPresent(conceptionDetailsLine -> rlePattern.setConceptionDetails(conceptionDetailsLine.substring(2).trim()));
+    @FunctionalInterface
+    private interface CellSinkFactory {
+
+        CellSink cellSink(RlePattern rlePattern, long expectedCells);
     }
 }
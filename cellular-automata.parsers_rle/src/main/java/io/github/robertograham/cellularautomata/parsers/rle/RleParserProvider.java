@@ -0,0 +1,46 @@
+package io.github.robertograham.cellularautomata.parsers.rle;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteInput;
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteLine;
+import io.github.robertograham.cellularautomata.parsers.common.parser.ICellularAutomataPatternParserProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+public class RleParserProvider implements ICellularAutomataPatternParserProvider {
+
+    @Override
+    public String formatName() {
+        return "RLE";
+    }
+
+    @Override
+    public boolean matches(ByteBuffer header) {
+        var byteInput = ByteInput.of(header);
+        var line = new ByteLine();
+
+        try {
+            while (byteInput.readLine(line)) {
+                if (line.trim().isEmpty() || line.byteAt(0) == '#' && !line.startsWith("#Life"))
+                    continue;
+
+                if (!line.skipIf('x'))
+                    return false;
+
+                line.skipWhitespace();
+
+                return line.skipIf('=');
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return false;
+    }
+
+    @Override
+    public RleParser parser() {
+        return new RleParser();
+    }
+}
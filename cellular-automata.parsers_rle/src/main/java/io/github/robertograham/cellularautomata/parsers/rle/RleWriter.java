@@ -0,0 +1,189 @@
+package io.github.robertograham.cellularautomata.parsers.rle;
+
+import io.github.robertograham.cellularautomata.parsers.common.io.ByteOutput;
+import io.github.robertograham.cellularautomata.parsers.common.model.RowSortedCells;
+import io.github.robertograham.cellularautomata.parsers.common.writer.concrete.CellularAutomataPatternWriter;
+
+import java.io.IOException;
+
+public class RleWriter extends CellularAutomataPatternWriter<RlePattern> {
+
+    private static final int MAXIMUM_LINE_LENGTH = 70;
+    private static final int STATES_PER_PREFIX = 24;
+    private static final int MAXIMUM_STATE = 255;
+
+    @Override
+    protected void write(RlePattern rlePattern, ByteOutput byteOutput) throws IOException {
+        var cells = RowSortedCells.of(rlePattern.cellStore());
+        var originX = rlePattern.origin().x();
+        var originY = rlePattern.origin().y();
+        var maxX = originX - 1;
+        var maxY = originY - 1;
+
+        for (var index = 0; index < cells.size(); index++) {
+            originX = Math.min(originX, cells.x(index));
+            maxX = Math.max(maxX, cells.x(index));
+        }
+
+        if (cells.size() > 0) {
+            originY = Math.min(originY, cells.y(0));
+            maxY = Math.max(maxY, cells.y(cells.size() - 1));
+        }
+
+        writeComments(rlePattern, byteOutput);
+
+        if (originX != 0 || originY != 0) {
+            byteOutput.write("#R ");
+            byteOutput.write(originX);
+            byteOutput.write((byte) ' ');
+            byteOutput.write(originY);
+            byteOutput.newLine();
+        }
+
+        byteOutput.write("x = ");
+        byteOutput.write(Math.max(valueOrZero(rlePattern.getWidth()), maxX - originX + 1));
+        byteOutput.write(", y = ");
+        byteOutput.write(Math.max(valueOrZero(rlePattern.getHeight()), maxY - originY + 1));
+
+        if (rlePattern.getRule() != null) {
+            byteOutput.write(", rule = ");
+            byteOutput.write(rlePattern.getRule());
+        }
+
+        byteOutput.newLine();
+        writeCellData(cells, originX, originY, byteOutput);
+    }
+
+    private void writeComments(RlePattern rlePattern, ByteOutput byteOutput) throws IOException {
+        for (var comment : rlePattern.comments())
+            writeLine("#C", comment, byteOutput);
+
+        if (rlePattern.getConceptionDetails() != null)
+            writeLine("#O", rlePattern.getConceptionDetails(), byteOutput);
+    }
+
+    private void writeLine(String prefix, String text, ByteOutput byteOutput) throws IOException {
+        byteOutput.write(prefix);
+
+        if (!text.isEmpty()) {
+            byteOutput.write((byte) ' ');
+            byteOutput.write(text);
+        }
+
+        byteOutput.newLine();
+    }
+
+    private void writeCellData(RowSortedCells cells, long originX, long originY, ByteOutput byteOutput) throws IOException {
+        var encoder = new RunEncoder(byteOutput);
+        var multiState = isMultiState(cells);
+        var row = originY;
+        var x = originX;
+
+        for (var index = 0; index < cells.size(); index++) {
+            if (cells.y(index) != row) {
+                encoder.append((byte) 0, (byte) '$', cells.y(index) - row);
+                row = cells.y(index);
+                x = originX;
+            }
+
+            encoder.append((byte) 0, multiState ? (byte) '.' : (byte) 'b', cells.x(index) - x);
+
+            var state = cells.state(index);
+
+            if (!multiState)
+                encoder.append((byte) 0, (byte) 'o', 1);
+            else if (state <= STATES_PER_PREFIX)
+                encoder.append((byte) 0, (byte) ('A' + state - 1), 1);
+            else
+                encoder.append((byte) ('p' + (state - 1) / STATES_PER_PREFIX - 1), (byte) ('A' + (state - 1) % STATES_PER_PREFIX), 1);
+
+            x = cells.x(index) + 1;
+        }
+
+        encoder.append((byte) 0, (byte) '!', 1);
+        encoder.flush();
+        byteOutput.newLine();
+    }
+
+    private static boolean isMultiState(RowSortedCells cells) {
+        var multiState = false;
+
+        for (var index = 0; index < cells.size(); index++) {
+            var state = cells.state(index);
+
+            if (state < 1 || state > MAXIMUM_STATE)
+                throw new IllegalArgumentException("RLE writer cannot encode cell state " + state);
+
+            multiState |= state != 1;
+        }
+
+        return multiState;
+    }
+
+    private static long valueOrZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private static final class RunEncoder {
+
+        private final ByteOutput byteOutput;
+        private byte prefix;
+        private byte tag;
+        private long count;
+        private int column;
+
+        private RunEncoder(ByteOutput byteOutput) {
+            this.byteOutput = byteOutput;
+        }
+
+        private void append(byte prefix, byte tag, long count) throws IOException {
+            if (count <= 0)
+                return;
+
+            if (prefix == this.prefix && tag == this.tag) {
+                this.count += count;
+                return;
+            }
+
+            flush();
+            this.prefix = prefix;
+            this.tag = tag;
+            this.count = count;
+        }
+
+        private void flush() throws IOException {
+            if (count == 0)
+                return;
+
+            var length = (count > 1 ? digits(count) : 0) + (prefix != 0 ? 2 : 1);
+
+            if (column + length > MAXIMUM_LINE_LENGTH) {
+                byteOutput.newLine();
+                column = 0;
+            }
+
+            if (count > 1)
+                byteOutput.write(count);
+
+            if (prefix != 0)
+                byteOutput.write(prefix);
+
+            byteOutput.write(tag);
+            column += length;
+            count = 0;
+            prefix = 0;
+            tag = 0;
+        }
+
+        private static int digits(long value) {
+            var digits = 1;
+
+            while (value >= 10) {
+                value /= 10;
+                digits++;
+            }
+
+            return digits;
+        }
+    }
+}
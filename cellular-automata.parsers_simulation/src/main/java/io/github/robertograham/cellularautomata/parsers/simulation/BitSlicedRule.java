@@ -0,0 +1,63 @@
+package io.github.robertograham.cellularautomata.parsers.simulation;
+
+final class BitSlicedRule {
+
+    private final long[] countFlips;
+    private final long[] birthMasks;
+    private final long[] survivalMasks;
+
+    BitSlicedRule(LifeRule rule) {
+        var entries = Integer.bitCount(rule.birthMask() | rule.survivalMask());
+
+        countFlips = new long[entries * 4];
+        birthMasks = new long[entries];
+        survivalMasks = new long[entries];
+
+        for (int count = 0, entry = 0; count <= 8; count++) {
+            if (!rule.isBirth(count) && !rule.isSurvival(count))
+                continue;
+
+            for (var plane = 0; plane < 4; plane++)
+                countFlips[entry * 4 + plane] = (count >>> plane & 1) != 0 ? 0 : -1L;
+
+            birthMasks[entry] = rule.isBirth(count) ? -1L : 0;
+            survivalMasks[entry] = rule.isSurvival(count) ? -1L : 0;
+            entry++;
+        }
+    }
+
+    long next(long middle,
+              long aboveWest, long above, long aboveEast,
+              long middleWest, long middleEast,
+              long belowWest, long below, long belowEast) {
+        var aboveOnes = aboveWest ^ above ^ aboveEast;
+        var aboveTwos = aboveWest & above | aboveEast & (aboveWest ^ above);
+        var belowOnes = belowWest ^ below ^ belowEast;
+        var belowTwos = belowWest & below | belowEast & (belowWest ^ below);
+        var middleOnes = middleWest ^ middleEast;
+        var middleTwos = middleWest & middleEast;
+
+        var ones = aboveOnes ^ belowOnes ^ middleOnes;
+        var onesCarry = aboveOnes & belowOnes | middleOnes & (aboveOnes ^ belowOnes);
+        var twosPartial = aboveTwos ^ belowTwos ^ middleTwos;
+        var twosCarry = aboveTwos & belowTwos | middleTwos & (aboveTwos ^ belowTwos);
+        var twos = twosPartial ^ onesCarry;
+        var foursCarry = twosPartial & onesCarry;
+        var fours = twosCarry ^ foursCarry;
+        var eights = twosCarry & foursCarry;
+
+        var result = 0L;
+
+        for (var entry = 0; entry < birthMasks.length; entry++) {
+            var flips = entry * 4;
+            var matches = (ones ^ countFlips[flips])
+                    & (twos ^ countFlips[flips + 1])
+                    & (fours ^ countFlips[flips + 2])
+                    & (eights ^ countFlips[flips + 3]);
+
+            result |= matches & (middle & survivalMasks[entry] | ~middle & birthMasks[entry]);
+        }
+
+        return result;
+    }
+}
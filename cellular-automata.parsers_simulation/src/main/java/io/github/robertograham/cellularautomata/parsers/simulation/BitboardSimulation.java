@@ -0,0 +1,275 @@
+package io.github.robertograham.cellularautomata.parsers.simulation;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellSink;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.common.model.PackedCellStore;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class BitboardSimulation {
+
+    private static final int MAXIMUM_WORDS = Integer.MAX_VALUE - 8;
+    private static final int BAND_ROWS = 64;
+    private static final int MINIMUM_MARGIN_ROWS = 64;
+
+    private final LifeRule rule;
+    private final BitSlicedRule bitSlicedRule;
+    private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+    private long parallelThreshold = 1 << 14;
+    private long originX;
+    private long originY;
+    private int wordsPerRow;
+    private int height;
+    private long[] current;
+    private long[] next;
+    private long generation;
+
+    public BitboardSimulation(LifeRule rule) {
+        this.rule = rule;
+        bitSlicedRule = new BitSlicedRule(rule);
+        allocate(0, 0, 1, MINIMUM_MARGIN_ROWS);
+    }
+
+    public BitboardSimulation(CellStore cellStore, LifeRule rule) {
+        this(rule);
+        load(cellStore);
+    }
+
+    public static BitboardSimulation of(CellularAutomataPattern pattern) {
+        return new BitboardSimulation(pattern.cellStore(), LifeRule.of(pattern));
+    }
+
+    public LifeRule getRule() {
+        return rule;
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public long getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(long parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public void load(CellStore cellStore) {
+        var bounds = new long[]{Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+
+        cellStore.forEachCell((x, y, state) -> {
+            if (state != 1)
+                throw new IllegalArgumentException("Bitboard simulation only holds cells of state 1");
+
+            bounds[0] = Math.min(bounds[0], x);
+            bounds[1] = Math.min(bounds[1], y);
+            bounds[2] = Math.max(bounds[2], x);
+            bounds[3] = Math.max(bounds[3], y);
+        });
+
+        generation = 0;
+
+        if (bounds[0] > bounds[2]) {
+            allocate(0, 0, 1, MINIMUM_MARGIN_ROWS);
+            return;
+        }
+
+        var width = bounds[2] - bounds[0] + 1;
+        var rows = bounds[3] - bounds[1] + 1;
+
+        allocate(bounds[0] - Long.SIZE, bounds[1] - MINIMUM_MARGIN_ROWS, ((width + 63) >>> 6) + 2, rows + 2 * MINIMUM_MARGIN_ROWS);
+        cellStore.forEachCell((x, y, state) -> set(current, x, y));
+    }
+
+    public void step() {
+        growIfTouchingBorder();
+
+        var words = (long) wordsPerRow * height;
+
+        if (words >= parallelThreshold && forkJoinPool.getParallelism() > 1 && height > BAND_ROWS)
+            stepInParallel();
+        else
+            stepRows(0, height);
+
+        var previous = current;
+
+        current = next;
+        next = previous;
+        generation++;
+    }
+
+    public void step(long generations) {
+        for (var index = 0L; index < generations; index++)
+            step();
+    }
+
+    public long population() {
+        var population = 0L;
+
+        for (var word : current)
+            population += Long.bitCount(word);
+
+        return population;
+    }
+
+    public boolean contains(long x, long y) {
+        var column = x - originX;
+        var row = y - originY;
+
+        if (column < 0 || row < 0 || column >= (long) wordsPerRow << 6 || row >= height)
+            return false;
+
+        return (current[(int) (row * wordsPerRow + (column >>> 6))] >>> (column & 63) & 1) != 0;
+    }
+
+    public void forEachCell(CellSink cellSink) {
+        for (var row = 0; row < height; row++)
+            for (var wordIndex = 0; wordIndex < wordsPerRow; wordIndex++)
+                for (var word = current[row * wordsPerRow + wordIndex]; word != 0; word &= word - 1)
+                    cellSink.accept(originX + ((long) wordIndex << 6) + Long.numberOfTrailingZeros(word), originY + row, 1);
+    }
+
+    public CellStore toCellStore() {
+        var cellStore = new PackedCellStore((int) Math.min(population(), Integer.MAX_VALUE));
+
+        forEachCell(cellStore);
+
+        return cellStore;
+    }
+
+    private void stepInParallel() {
+        var tasks = new ArrayList<ForkJoinTask<?>>();
+        var bandRows = Math.max(BAND_ROWS, height / (forkJoinPool.getParallelism() * 4));
+
+        try {
+            for (var from = 0; from < height; from += bandRows) {
+                var bandFrom = from;
+                var bandTo = Math.min(height, from + bandRows);
+                tasks.add(forkJoinPool.submit(() -> stepRows(bandFrom, bandTo)));
+            }
+
+            for (var task : tasks)
+                task.join();
+        } finally {
+            for (var task : tasks)
+                task.cancel(false);
+        }
+    }
+
+    private void stepRows(int from, int to) {
+        var emptyRow = new long[wordsPerRow];
+
+        for (var row = from; row < to; row++) {
+            var rowStart = row * wordsPerRow;
+            var aboveRow = row == 0 ? emptyRow : current;
+            var aboveStart = row == 0 ? 0 : rowStart - wordsPerRow;
+            var belowRow = row == height - 1 ? emptyRow : current;
+            var belowStart = row == height - 1 ? 0 : rowStart + wordsPerRow;
+            var aboveWest = 0L;
+            var middleWest = 0L;
+            var belowWest = 0L;
+            var above = aboveRow[aboveStart];
+            var middle = current[rowStart];
+            var below = belowRow[belowStart];
+
+            for (var wordIndex = 0; wordIndex < wordsPerRow; wordIndex++) {
+                var east = wordIndex + 1 < wordsPerRow;
+                var aboveEast = east ? aboveRow[aboveStart + wordIndex + 1] : 0;
+                var middleEast = east ? current[rowStart + wordIndex + 1] : 0;
+                var belowEast = east ? belowRow[belowStart + wordIndex + 1] : 0;
+
+                if ((above | middle | below | (aboveWest | middleWest | belowWest) >>> 63 | (aboveEast | middleEast | belowEast) << 63) == 0)
+                    next[rowStart + wordIndex] = 0;
+                else
+                    next[rowStart + wordIndex] = nextWord(above, middle, below, aboveWest, middleWest, belowWest, aboveEast, middleEast, belowEast);
+
+                aboveWest = above;
+                middleWest = middle;
+                belowWest = below;
+                above = aboveEast;
+                middle = middleEast;
+                below = belowEast;
+            }
+        }
+    }
+
+    private long nextWord(long above, long middle, long below,
+                          long aboveWest, long middleWest, long belowWest,
+                          long aboveEast, long middleEast, long belowEast) {
+        return bitSlicedRule.next(
+                middle,
+                above << 1 | aboveWest >>> 63, above, above >>> 1 | aboveEast << 63,
+                middle << 1 | middleWest >>> 63, middle >>> 1 | middleEast << 63,
+                below << 1 | belowWest >>> 63, below, below >>> 1 | belowEast << 63
+        );
+    }
+
+    private void growIfTouchingBorder() {
+        var lastRowStart = (height - 1) * wordsPerRow;
+        var top = false;
+        var bottom = false;
+        var left = false;
+        var right = false;
+
+        for (var wordIndex = 0; wordIndex < wordsPerRow; wordIndex++) {
+            top |= current[wordIndex] != 0;
+            bottom |= current[lastRowStart + wordIndex] != 0;
+        }
+
+        for (var row = 0; row < height; row++) {
+            left |= (current[row * wordsPerRow] & 1) != 0;
+            right |= current[row * wordsPerRow + wordsPerRow - 1] < 0;
+        }
+
+        if (!top && !bottom && !left && !right)
+            return;
+
+        var marginRows = Math.max(MINIMUM_MARGIN_ROWS, height >> 2);
+        var marginWords = Math.max(1, wordsPerRow >> 2);
+        var addedTop = top ? marginRows : 0;
+        var addedLeft = left ? marginWords : 0;
+        var previous = current;
+        var previousWordsPerRow = wordsPerRow;
+        var previousHeight = height;
+
+        allocate(
+                originX - ((long) addedLeft << 6),
+                originY - addedTop,
+                (long) wordsPerRow + addedLeft + (right ? marginWords : 0),
+                (long) height + addedTop + (bottom ? marginRows : 0)
+        );
+
+        for (var row = 0; row < previousHeight; row++)
+            System.arraycopy(previous, row * previousWordsPerRow, current, (row + addedTop) * wordsPerRow + addedLeft, previousWordsPerRow);
+    }
+
+    private void allocate(long originX, long originY, long wordsPerRow, long height) {
+        if (wordsPerRow > MAXIMUM_WORDS || height > MAXIMUM_WORDS / wordsPerRow)
+            throw new IllegalArgumentException("Pattern has grown too large for a bitboard simulation");
+
+        this.originX = originX;
+        this.originY = originY;
+        this.wordsPerRow = (int) wordsPerRow;
+        this.height = (int) height;
+        current = new long[(int) (wordsPerRow * height)];
+        next = new long[current.length];
+    }
+
+    private void set(long[] words, long x, long y) {
+        var column = x - originX;
+
+        words[(int) ((y - originY) * wordsPerRow + (column >>> 6))] |= 1L << (column & 63);
+    }
+}
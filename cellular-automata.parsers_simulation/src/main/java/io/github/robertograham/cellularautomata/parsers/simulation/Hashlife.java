@@ -0,0 +1,447 @@
+package io.github.robertograham.cellularautomata.parsers.simulation;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellStore;
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.common.model.Coordinate;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTree;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeBuilder;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeCellStore;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeNode;
+import io.github.robertograham.cellularautomata.parsers.common.quadtree.QuadTreeNodeTable;
+import io.github.robertograham.cellularautomata.parsers.life105.Life105Pattern;
+import io.github.robertograham.cellularautomata.parsers.life106.Life106Pattern;
+import io.github.robertograham.cellularautomata.parsers.rle.RlePattern;
+
+import java.util.IdentityHashMap;
+import java.util.function.Supplier;
+
+public class Hashlife {
+
+    private static final int BASE_LEVEL = QuadTreeNode.LEAF_LEVEL + 1;
+    private static final int BASE_SIZE = 1 << BASE_LEVEL;
+    private static final long BASE_ROW_MASK = (1L << BASE_SIZE) - 1;
+    private static final long NODE_BYTES = 64;
+    private static final long RESULT_BYTES = 40;
+    private static final long RESULT_CACHE_SHARE = 4;
+    private static final JumpAbortedException JUMP_ABORTED = new JumpAbortedException();
+
+    private final LifeRule rule;
+    private final BitSlicedRule bitSlicedRule;
+    private long memoryBudget = 1L << 28;
+    private QuadTreeNodeTable nodeTable = new QuadTreeNodeTable();
+    private QuadTreeNode root = nodeTable.empty(QuadTree.MINIMUM_ROOT_LEVEL);
+    private ResultCache resultCache = newResultCache();
+    private long generation;
+    private long collections;
+    private long nodeLimit = Long.MAX_VALUE;
+
+    public Hashlife(LifeRule rule) {
+        this.rule = rule;
+        bitSlicedRule = new BitSlicedRule(rule);
+    }
+
+    public Hashlife(CellStore cellStore, LifeRule rule) {
+        this(rule);
+        load(cellStore);
+    }
+
+    public static Hashlife of(CellularAutomataPattern pattern) {
+        return new Hashlife(pattern.cellStore(), LifeRule.of(pattern));
+    }
+
+    public LifeRule getRule() {
+        return rule;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        resultCache = newResultCache();
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public long population() {
+        return root.population();
+    }
+
+    public long collections() {
+        return collections;
+    }
+
+    public long estimatedBytes() {
+        return nodeTable.size() * NODE_BYTES + resultCache.size() * RESULT_BYTES;
+    }
+
+    public void load(CellStore cellStore) {
+        var builder = new QuadTreeBuilder();
+
+        cellStore.forEachCell((x, y, state) -> {
+            if (state != 1)
+                throw new IllegalArgumentException("Hashlife only holds cells of state 1");
+
+            builder.add(x, y);
+        });
+
+        nodeTable = new QuadTreeNodeTable();
+        resultCache = newResultCache();
+        root = builder.build(nodeTable);
+        generation = 0;
+    }
+
+    public void advance(long generations) {
+        if (generations < 0)
+            throw new IllegalArgumentException("Generations must not be negative");
+
+        for (var exponent = 0; generations >>> exponent != 0; exponent++)
+            if ((generations >>> exponent & 1) != 0)
+                advanceByPowerOfTwo(exponent);
+    }
+
+    public void advanceByPowerOfTwo(int exponent) {
+        if (exponent < 0 || exponent > QuadTree.MAXIMUM_LEVEL - 3)
+            throw new IllegalArgumentException("Cannot advance by 2^" + exponent + " generations");
+
+        var generations = Math.addExact(generation, 1L << exponent);
+
+        jump(exponent);
+        generation = generations;
+    }
+
+    public QuadTree quadTree() {
+        return new QuadTree(nodeTable, root);
+    }
+
+    public QuadTreeCellStore toCellStore() {
+        return new QuadTreeCellStore(nodeTable, root);
+    }
+
+    public <T extends CellularAutomataPattern> T toPattern(Supplier<T> patternSupplier) {
+        var pattern = patternSupplier.get();
+        var quadTree = quadTree();
+        var empty = quadTree.isEmpty();
+        var originX = empty ? 0 : quadTree.minX();
+        var originY = empty ? 0 : quadTree.minY();
+        var width = empty ? 0 : quadTree.maxX() - originX + 1;
+        var height = empty ? 0 : quadTree.maxY() - originY + 1;
+
+        pattern.setCellStore(toCellStore());
+        pattern.setOrigin(new Coordinate(originX, originY));
+
+        if (pattern instanceof RlePattern) {
+            var rlePattern = (RlePattern) pattern;
+
+            rlePattern.setRule(rule.toString());
+            rlePattern.setWidth(width);
+            rlePattern.setHeight(height);
+        } else if (pattern instanceof Life105Pattern) {
+            var life105Pattern = (Life105Pattern) pattern;
+
+            if (!LifeRule.LIFE.equals(rule))
+                life105Pattern.setRule(rule.toString());
+
+            life105Pattern.setWidth(width);
+            life105Pattern.setHeight(height);
+        } else if (pattern instanceof Life106Pattern) {
+            if (!LifeRule.LIFE.equals(rule))
+                throw new IllegalArgumentException("Life 1.06 patterns cannot carry the rule " + rule);
+
+            var life106Pattern = (Life106Pattern) pattern;
+
+            life106Pattern.setWidth(width);
+            life106Pattern.setHeight(height);
+        }
+
+        return pattern;
+    }
+
+    public void collect() {
+        var collectedTable = new QuadTreeNodeTable();
+
+        root = copy(root, collectedTable, new IdentityHashMap<>());
+        nodeTable = collectedTable;
+        resultCache = newResultCache();
+        collections++;
+    }
+
+    private void jump(int exponent) {
+        if (estimatedBytes() > memoryBudget)
+            collect();
+
+        while (root.level() < exponent + 2 || !isCentred(root))
+            root = expand(root);
+
+        nodeLimit = exponent == 0 ? Long.MAX_VALUE : Math.max((memoryBudget - memoryBudget / RESULT_CACHE_SHARE) / NODE_BYTES, 2L * nodeTable.size());
+
+        try {
+            root = advance(expand(root), exponent);
+        } catch (JumpAbortedException exception) {
+            collect();
+            jump(exponent - 1);
+            jump(exponent - 1);
+        } finally {
+            nodeLimit = Long.MAX_VALUE;
+        }
+    }
+
+    private ResultCache newResultCache() {
+        return new ResultCache(Math.max(1, memoryBudget / RESULT_CACHE_SHARE / RESULT_BYTES));
+    }
+
+    private QuadTreeNode copy(QuadTreeNode node, QuadTreeNodeTable collectedTable, IdentityHashMap<QuadTreeNode, QuadTreeNode> copies) {
+        var copy = copies.get(node);
+
+        if (copy != null)
+            return copy;
+
+        if (node.isLeaf())
+            copy = collectedTable.leaf(node.bits());
+        else
+            copy = collectedTable.node(
+                    copy(node.nw(), collectedTable, copies),
+                    copy(node.ne(), collectedTable, copies),
+                    copy(node.sw(), collectedTable, copies),
+                    copy(node.se(), collectedTable, copies)
+            );
+
+        copies.put(node, copy);
+
+        return copy;
+    }
+
+    private boolean isCentred(QuadTreeNode node) {
+        return node.population() == centre(node).population();
+    }
+
+    private QuadTreeNode expand(QuadTreeNode node) {
+        if (node.level() == QuadTree.MAXIMUM_LEVEL)
+            throw new IllegalArgumentException("Pattern has grown beyond the quad tree bounds");
+
+        var empty = nodeTable.empty(node.level() - 1);
+
+        return nodeTable.node(
+                nodeTable.node(empty, empty, empty, node.nw()),
+                nodeTable.node(empty, empty, node.ne(), empty),
+                nodeTable.node(empty, node.sw(), empty, empty),
+                nodeTable.node(node.se(), empty, empty, empty)
+        );
+    }
+
+    private QuadTreeNode advance(QuadTreeNode node, int exponent) {
+        if (node.isEmpty())
+            return nodeTable.empty(node.level() - 1);
+
+        var result = resultCache.get(node, exponent);
+
+        if (result != null)
+            return result;
+
+        result = node.level() == BASE_LEVEL ? advanceBase(node, exponent) : advanceRecursively(node, exponent);
+
+        if (nodeTable.size() > nodeLimit)
+            throw JUMP_ABORTED;
+
+        resultCache.put(node, exponent, result);
+
+        return result;
+    }
+
+    private QuadTreeNode advanceRecursively(QuadTreeNode node, int exponent) {
+        var n00 = node.nw();
+        var n01 = horizontalCentre(node.nw(), node.ne());
+        var n02 = node.ne();
+        var n10 = verticalCentre(node.nw(), node.sw());
+        var n11 = centre(node);
+        var n12 = verticalCentre(node.ne(), node.se());
+        var n20 = node.sw();
+        var n21 = horizontalCentre(node.sw(), node.se());
+        var n22 = node.se();
+        var fullSpeed = exponent == node.level() - 2;
+        var stageExponent = fullSpeed ? exponent - 1 : exponent;
+
+        var r00 = fullSpeed ? advance(n00, stageExponent) : centre(n00);
+        var r01 = fullSpeed ? advance(n01, stageExponent) : centre(n01);
+        var r02 = fullSpeed ? advance(n02, stageExponent) : centre(n02);
+        var r10 = fullSpeed ? advance(n10, stageExponent) : centre(n10);
+        var r11 = fullSpeed ? advance(n11, stageExponent) : centre(n11);
+        var r12 = fullSpeed ? advance(n12, stageExponent) : centre(n12);
+        var r20 = fullSpeed ? advance(n20, stageExponent) : centre(n20);
+        var r21 = fullSpeed ? advance(n21, stageExponent) : centre(n21);
+        var r22 = fullSpeed ? advance(n22, stageExponent) : centre(n22);
+
+        return nodeTable.node(
+                advance(nodeTable.node(r00, r01, r10, r11), stageExponent),
+                advance(nodeTable.node(r01, r02, r11, r12), stageExponent),
+                advance(nodeTable.node(r10, r11, r20, r21), stageExponent),
+                advance(nodeTable.node(r11, r12, r21, r22), stageExponent)
+        );
+    }
+
+    private QuadTreeNode advanceBase(QuadTreeNode node, int exponent) {
+        var rows = rows(node);
+
+        for (var step = 0; step < 1 << exponent; step++)
+            rows = step(rows);
+
+        return centreLeaf(rows);
+    }
+
+    private long[] step(long[] rows) {
+        var nextRows = new long[BASE_SIZE];
+
+        for (var row = 0; row < BASE_SIZE; row++) {
+            var above = row == 0 ? 0 : rows[row - 1];
+            var middle = rows[row];
+            var below = row == BASE_SIZE - 1 ? 0 : rows[row + 1];
+
+            nextRows[row] = bitSlicedRule.next(
+                    middle,
+                    above << 1, above, above >>> 1,
+                    middle << 1, middle >>> 1,
+                    below << 1, below, below >>> 1
+            ) & BASE_ROW_MASK;
+        }
+
+        return nextRows;
+    }
+
+    private QuadTreeNode centre(QuadTreeNode node) {
+        if (node.level() == BASE_LEVEL)
+            return centreLeaf(rows(node));
+
+        return nodeTable.node(node.nw().se(), node.ne().sw(), node.sw().ne(), node.se().nw());
+    }
+
+    private QuadTreeNode horizontalCentre(QuadTreeNode west, QuadTreeNode east) {
+        return nodeTable.node(west.ne(), east.nw(), west.se(), east.sw());
+    }
+
+    private QuadTreeNode verticalCentre(QuadTreeNode north, QuadTreeNode south) {
+        return nodeTable.node(north.sw(), north.se(), south.nw(), south.ne());
+    }
+
+    private static long[] rows(QuadTreeNode node) {
+        var rows = new long[BASE_SIZE];
+        var half = BASE_SIZE >> 1;
+
+        for (var row = 0; row < half; row++) {
+            var shift = row << 3;
+
+            rows[row] = (node.nw().bits() >>> shift & 0xFF) | (node.ne().bits() >>> shift & 0xFF) << half;
+            rows[row + half] = (node.sw().bits() >>> shift & 0xFF) | (node.se().bits() >>> shift & 0xFF) << half;
+        }
+
+        return rows;
+    }
+
+    private QuadTreeNode centreLeaf(long[] rows) {
+        var quarter = BASE_SIZE >> 2;
+        var bits = 0L;
+
+        for (var row = 0; row < BASE_SIZE >> 1; row++)
+            bits |= (rows[row + quarter] >>> quarter & 0xFF) << (row << 3);
+
+        return nodeTable.leaf(bits);
+    }
+
+    private static final class JumpAbortedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private JumpAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class ResultCache {
+
+        private static final int INITIAL_CAPACITY = 1 << 10;
+        private static final int MAXIMUM_CAPACITY = 1 << 30;
+        private static final int PROBES = 8;
+
+        private final int maximumCapacity;
+        private QuadTreeNode[] nodes;
+        private int[] exponents;
+        private QuadTreeNode[] results;
+        private int size;
+
+        private ResultCache(long maximumEntries) {
+            maximumCapacity = (int) Long.highestOneBit(Math.min(Math.max(maximumEntries, PROBES), MAXIMUM_CAPACITY));
+            allocate(Math.min(INITIAL_CAPACITY, maximumCapacity));
+        }
+
+        private QuadTreeNode get(QuadTreeNode node, int exponent) {
+            var mask = nodes.length - 1;
+            var slot = hash(node, exponent) & mask;
+
+            for (var probe = 0; probe < PROBES && nodes[slot] != null; probe++, slot = (slot + 1) & mask)
+                if (nodes[slot] == node && exponents[slot] == exponent)
+                    return results[slot];
+
+            return null;
+        }
+
+        private void put(QuadTreeNode node, int exponent, QuadTreeNode result) {
+            if (size >= nodes.length >> 1 && nodes.length < maximumCapacity)
+                resize(nodes.length << 1);
+
+            insert(node, exponent, result);
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private void insert(QuadTreeNode node, int exponent, QuadTreeNode result) {
+            var mask = nodes.length - 1;
+            var home = hash(node, exponent) & mask;
+            var slot = home;
+
+            for (var probe = 0; probe < PROBES; probe++) {
+                var candidate = (home + probe) & mask;
+
+                if (nodes[candidate] == null || nodes[candidate] == node && exponents[candidate] == exponent) {
+                    slot = candidate;
+                    break;
+                }
+            }
+
+            if (nodes[slot] == null)
+                size++;
+
+            nodes[slot] = node;
+            exponents[slot] = exponent;
+            results[slot] = result;
+        }
+
+        private void allocate(int capacity) {
+            nodes = new QuadTreeNode[capacity];
+            exponents = new int[capacity];
+            results = new QuadTreeNode[capacity];
+            size = 0;
+        }
+
+        private void resize(int capacity) {
+            var oldNodes = nodes;
+            var oldExponents = exponents;
+            var oldResults = results;
+
+            allocate(capacity);
+
+            for (var index = 0; index < oldNodes.length; index++)
+                if (oldNodes[index] != null)
+                    insert(oldNodes[index], oldExponents[index], oldResults[index]);
+        }
+
+        private static int hash(QuadTreeNode node, int exponent) {
+            var hash = node.hashCode() * 0x9E3779B1 + exponent;
+
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
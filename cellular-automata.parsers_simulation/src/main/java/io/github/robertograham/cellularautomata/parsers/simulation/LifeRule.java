@@ -0,0 +1,129 @@
+package io.github.robertograham.cellularautomata.parsers.simulation;
+
+import io.github.robertograham.cellularautomata.parsers.common.model.CellularAutomataPattern;
+import io.github.robertograham.cellularautomata.parsers.life105.Life105Pattern;
+import io.github.robertograham.cellularautomata.parsers.rle.RlePattern;
+
+public final class LifeRule {
+
+    public static final LifeRule LIFE = new LifeRule(1 << 3, 1 << 2 | 1 << 3);
+
+    private final int birthMask;
+    private final int survivalMask;
+
+    private LifeRule(int birthMask, int survivalMask) {
+        this.birthMask = birthMask;
+        this.survivalMask = survivalMask;
+    }
+
+    public static LifeRule of(int birthMask, int survivalMask) {
+        if ((birthMask | survivalMask) >>> 9 != 0)
+            throw new IllegalArgumentException("Neighbour counts must lie between 0 and 8");
+
+        if ((birthMask & 1) != 0)
+            throw new IllegalArgumentException("Rules with birth on 0 neighbours are not supported");
+
+        return new LifeRule(birthMask, survivalMask);
+    }
+
+    public static LifeRule of(CellularAutomataPattern pattern) {
+        String rule = null;
+
+        if (pattern instanceof RlePattern)
+            rule = ((RlePattern) pattern).getRule();
+        else if (pattern instanceof Life105Pattern)
+            rule = ((Life105Pattern) pattern).getRule();
+
+        return rule == null ? LIFE : of(rule);
+    }
+
+    public static LifeRule of(String rule) {
+        var trimmed = rule.trim();
+        var separator = trimmed.indexOf('/');
+
+        if (separator < 0 || trimmed.indexOf('/', separator + 1) >= 0)
+            throw new IllegalArgumentException("Rule \"" + rule + "\" is not of the form B.../S... or S/B");
+
+        var first = trimmed.substring(0, separator);
+        var second = trimmed.substring(separator + 1);
+
+        if (startsWith(first, 'B') && startsWith(second, 'S'))
+            return of(counts(first.substring(1), rule), counts(second.substring(1), rule));
+
+        if (startsWith(first, 'S') && startsWith(second, 'B'))
+            return of(counts(second.substring(1), rule), counts(first.substring(1), rule));
+
+        return of(counts(second, rule), counts(first, rule));
+    }
+
+    public boolean isBirth(int neighbours) {
+        return (birthMask >>> neighbours & 1) != 0;
+    }
+
+    public boolean isSurvival(int neighbours) {
+        return (survivalMask >>> neighbours & 1) != 0;
+    }
+
+    public int birthMask() {
+        return birthMask;
+    }
+
+    public int survivalMask() {
+        return survivalMask;
+    }
+
+    private static boolean startsWith(String counts, char prefix) {
+        return !counts.isEmpty() && Character.toUpperCase(counts.charAt(0)) == prefix;
+    }
+
+    private static int counts(String counts, String rule) {
+        var mask = 0;
+
+        for (var index = 0; index < counts.length(); index++) {
+            var count = counts.charAt(index) - '0';
+
+            if (count < 0 || count > 8)
+                throw new IllegalArgumentException("Rule \"" + rule + "\" contains an invalid neighbour count");
+
+            mask |= 1 << count;
+        }
+
+        return mask;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+
+        if (!(object instanceof LifeRule))
+            return false;
+
+        var lifeRule = (LifeRule) object;
+
+        return birthMask == lifeRule.birthMask &&
+                survivalMask == lifeRule.survivalMask;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * birthMask + survivalMask;
+    }
+
+    @Override
+    public String toString() {
+        var rule = new StringBuilder("B");
+
+        appendCounts(rule, birthMask);
+        rule.append("/S");
+        appendCounts(rule, survivalMask);
+
+        return rule.toString();
+    }
+
+    private static void appendCounts(StringBuilder rule, int mask) {
+        for (var count = 0; count <= 8; count++)
+            if ((mask >>> count & 1) != 0)
+                rule.append(count);
+    }
+}
@@ -0,0 +1,7 @@
+module io.github.robertograham.cellularautomata.parsers.simulation {
+    requires io.github.robertograham.cellularautomata.parsers.common;
+    requires io.github.robertograham.cellularautomata.parsers.life105;
+    requires io.github.robertograham.cellularautomata.parsers.life106;
+    requires io.github.robertograham.cellularautomata.parsers.rle;
+    exports io.github.robertograham.cellularautomata.parsers.simulation;
+}